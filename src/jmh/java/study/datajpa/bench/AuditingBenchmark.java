@@ -0,0 +1,62 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+/**
+ * One transaction that saves {@code batch} members through the repository, from 8 threads at once.
+ * {@code scoped=false} resolves a fresh auditor and reads {@code LocalDateTime.now()} for every audited
+ * field; {@code scoped=true} resolves the auditor once per transaction and reads the shared coarse clock.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class AuditingBenchmark {
+
+    @Param({"100"})
+    int batch;
+
+    @Param({"false", "true"})
+    boolean scoped;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate tx;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "datajpa.audit.scoped-auditor=" + scoped,
+                "datajpa.audit.coarse-clock=" + scoped);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = BenchmarkContext.transactionTemplate(context);
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear() {
+        memberRepository.deleteAllInBatch();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void save() {
+        tx.executeWithoutResult(status -> {
+            for (int i = 0; i < batch; i++) {
+                memberRepository.save(new Member("audited" + i, i));
+            }
+        });
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.bench;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    public static ConfigurableApplicationContext start(String... properties) {
+        String[] defaults = {
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                "spring.jpa.hibernate.ddl-auto=create",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "spring.main.web-application-type=none",
+                "spring.main.banner-mode=off",
+                "decorator.datasource.enabled=false",
+                "logging.level.root=warn",
+                "logging.level.org.hibernate.SQL=warn"
+        };
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .run(Stream.concat(Stream.of(defaults), Stream.of(properties)).map(p -> "--" + p).toArray(String[]::new));
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int members, int teams) {
+        EntityManager em = context.getBean(EntityManager.class);
+        TransactionTemplate tx = transactionTemplate(context);
+        tx.executeWithoutResult(status -> {
+            List<Team> saved = new ArrayList<>();
+            for (int i = 0; i < teams; i++) {
+                Team team = new Team("team" + i);
+                em.persist(team);
+                saved.add(team);
+            }
+            for (int i = 0; i < members; i++) {
+                em.persist(new Member("member" + i, i % 100, saved.get(i % teams)));
+                if ((i + 1) % 500 == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        });
+    }
+
+    public static TransactionTemplate transactionTemplate(ConfigurableApplicationContext context) {
+        return new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+}
@@ -0,0 +1,77 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.retry.OptimisticRetry;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Eight threads incrementing the age of one of {@code hotMembers} rows, either under PESSIMISTIC_WRITE
+ * or through {@code @Version} checks with {@link OptimisticRetry}. Sample mode reports p99 latency.
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+public class ContentionBenchmark {
+
+    @Param({"1", "16"})
+    int hotMembers;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private OptimisticRetry optimisticRetry;
+    private TransactionTemplate transaction;
+    private List<Long> ids;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start(
+                "datajpa.retry.max-attempts=100",
+                "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=off",
+                "datajpa.retry.initial-backoff=100us",
+                "datajpa.retry.max-backoff=10ms");
+        memberRepository = context.getBean(MemberRepository.class);
+        optimisticRetry = context.getBean(OptimisticRetry.class);
+        transaction = BenchmarkContext.transactionTemplate(context);
+        ids = IntStream.range(0, hotMembers)
+                .mapToObj(i -> memberRepository.save(new Member("hot" + i, 0)).getId())
+                .collect(Collectors.toList());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void pessimisticWrite() {
+        String username = "hot" + ThreadLocalRandom.current().nextInt(hotMembers);
+        transaction.executeWithoutResult(status ->
+                memberRepository.findLockByUsername(username).forEach(m -> m.setAge(m.getAge() + 1)));
+    }
+
+    @Benchmark
+    public void optimisticRetry() {
+        Long id = ids.get(ThreadLocalRandom.current().nextInt(hotMembers));
+        optimisticRetry.run(() -> {
+            Member member = memberRepository.findById(id).get();
+            member.setAge(member.getAge() + 1);
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.entity.Member;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+/**
+ * Holds every member and team in one persistence context, changes {@code dirty} of them and flushes.
+ * Without bytecode enhancement the flush compares every managed entity with its snapshot; with the
+ * enhancement applied by the build, only the entities that recorded a change are visited. Run once with
+ * {@code -PnoEnhance} for the baseline.
+ */
+@State(Scope.Benchmark)
+public class FlushBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    @Param({"10"})
+    int dirty;
+
+    private ConfigurableApplicationContext context;
+    private EntityManagerFactory emf;
+    private EntityManager em;
+    private List<Member> managed;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, 100);
+        emf = context.getBean(EntityManagerFactory.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void load() {
+        em = emf.createEntityManager();
+        em.getTransaction().begin();
+        managed = em.createQuery("SELECT m FROM Member m JOIN FETCH m.team", Member.class).getResultList();
+    }
+
+    @TearDown(Level.Iteration)
+    public void rollback() {
+        em.getTransaction().rollback();
+        em.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int flush() {
+        int offset = round++ * dirty;
+        for (int i = 0; i < dirty; i++) {
+            Member member = managed.get((offset + i) % managed.size());
+            member.setAge(member.getAge() + 1);
+        }
+        em.flush();
+        return offset;
+    }
+}
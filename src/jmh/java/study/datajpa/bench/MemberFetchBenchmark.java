@@ -0,0 +1,88 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberJpaRepository;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+@State(Scope.Benchmark)
+public class MemberFetchBenchmark {
+
+    @Param({"1000", "10000"})
+    int members;
+
+    @Param({"100"})
+    int teams;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private MemberJpaRepository memberJpaRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.seed(context, members, teams);
+        memberRepository = context.getBean(MemberRepository.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readOnly = BenchmarkContext.transactionTemplate(context);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void fetchJoin(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberFetchJoin(), bh));
+    }
+
+    @Benchmark
+    public void entityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberEntityGraph(), bh));
+    }
+
+    @Benchmark
+    public void namedEntityGraph(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findNamedEntityGraphByUsername("member1"), bh));
+    }
+
+    @Benchmark
+    public void lazyProxy(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> consumeTeams(memberRepository.findMemberCustom(), bh));
+    }
+
+    @Benchmark
+    public void dtoProjection(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> bh.consume(memberRepository.findMemberDto()));
+    }
+
+    @Benchmark
+    public void springDataDerivedQuery(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> bh.consume(memberRepository.findByUsernameAndAgeGreaterThan("member1", 0)));
+    }
+
+    @Benchmark
+    public void plainJpaRepositoryQuery(Blackhole bh) {
+        readOnly.executeWithoutResult(status -> bh.consume(memberJpaRepository.findByUsernameAndAgeGreaterThan("member1", 0)));
+    }
+
+    private static void consumeTeams(List<Member> members, Blackhole bh) {
+        for (Member member : members) {
+            bh.consume(member.getTeam().getName());
+        }
+    }
+}
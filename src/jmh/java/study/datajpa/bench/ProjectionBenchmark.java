@@ -0,0 +1,79 @@
+package study.datajpa.bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.projection.CompiledProjectionFactory;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"1000"})
+    int rows;
+
+    @Param({"proxy", "compiled"})
+    String factory;
+
+    private ProjectionFactory projectionFactory;
+    private List<Member> members;
+    private List<Map<String, Object>> tuples;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        projectionFactory = "compiled".equals(factory) ? new CompiledProjectionFactory() : new SpelAwareProxyProjectionFactory();
+        members = new ArrayList<>(rows);
+        tuples = new ArrayList<>(rows);
+        Team team = new Team("teamA");
+        for (int i = 0; i < rows; i++) {
+            members.add(new Member("member" + i, i, team));
+            Map<String, Object> tuple = new HashMap<>();
+            tuple.put("id", BigInteger.valueOf(i));
+            tuple.put("username", "member" + i);
+            tuple.put("teamName", team.getName());
+            tuples.add(tuple);
+        }
+    }
+
+    @Benchmark
+    public void openProjection(Blackhole bh) {
+        for (Member member : members) {
+            bh.consume(projectionFactory.createProjection(UsernameOnly.class, member).getUsername());
+        }
+    }
+
+    @Benchmark
+    public void nestedClosedProjection(Blackhole bh) {
+        for (Member member : members) {
+            NestedClosedProjections projection = projectionFactory.createProjection(NestedClosedProjections.class, member);
+            bh.consume(projection.getUsername());
+            bh.consume(projection.getTeam().getName());
+        }
+    }
+
+    @Benchmark
+    public void tupleProjection(Blackhole bh) {
+        for (Map<String, Object> tuple : tuples) {
+            MemberProjection projection = projectionFactory.createProjection(MemberProjection.class, tuple);
+            bh.consume(projection.getId());
+            bh.consume(projection.getUsername());
+            bh.consume(projection.getTeamName());
+        }
+    }
+}
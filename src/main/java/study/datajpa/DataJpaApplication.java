@@ -1,15 +1,30 @@
 package study.datajpa;
 
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import study.datajpa.audit.BinaryAuditorConverter;
+import study.datajpa.audit.CoarseClock;
+import study.datajpa.audit.ScopedAuditorAware;
+import study.datajpa.repository.TableWriteInspector;
+import study.datajpa.repository.projection.CompiledProjectionRepositoryFactoryBean;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Supplier;
 
-@EnableJpaAuditing
+@EnableJpaAuditing(dateTimeProviderRef = "coarseDateTimeProvider")
+@EnableJpaRepositories(repositoryFactoryBeanClass = CompiledProjectionRepositoryFactoryBean.class)
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -18,7 +33,24 @@ public class DataJpaApplication {
 	}
 
 	@Bean
-	public AuditorAware<String> auditorProvider() {
-		return () -> Optional.of(UUID.randomUUID().toString());
+	public AuditorAware<String> auditorProvider(@Value("${datajpa.audit.scoped-auditor:true}") boolean scoped) {
+		Supplier<String> auditor = () -> UUID.randomUUID().toString();
+		return scoped ? new ScopedAuditorAware(auditor) : () -> Optional.of(auditor.get());
+	}
+
+	@Bean
+	public DateTimeProvider coarseDateTimeProvider(@Value("${datajpa.audit.coarse-clock:true}") boolean coarse) {
+		return coarse ? () -> Optional.of(CoarseClock.SHARED.now()) : () -> Optional.of(LocalDateTime.now());
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "datajpa.audit.binary-auditors", havingValue = "true")
+	public EntityManagerFactoryBuilderCustomizer binaryAuditorMapping() {
+		return builder -> builder.setPersistenceUnitPostProcessors(unit -> unit.addMappingFileName(BinaryAuditorConverter.MAPPING));
+	}
+
+	@Bean
+	public HibernatePropertiesCustomizer statementInspectorCustomizer(TableWriteInspector tableWriteInspector) {
+		return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, tableWriteInspector);
 	}
 }
@@ -0,0 +1,186 @@
+package study.datajpa.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Rewrites auditor columns still stored as strings into the binary layout of {@link BinaryAuditorConverter},
+ * one column at a time: adds {@code <column>_bin}, brings it in line with the string column through the
+ * converter in id-ordered chunks, then drops the old column and renames the new one. Each chunk compares
+ * every row and rewrites only those whose binary value is missing or no longer matches, so a rerun after an
+ * interruption resumes cheaply and also picks up rows the application changed in between. Every step is
+ * detected from the schema; DDL commits implicitly on H2 and MySQL, so the drop and the rename are separate
+ * steps and a rerun finishes a rename that did not happen after the drop.
+ * <p>
+ * It runs while the context starts, before the EntityManagerFactory and therefore before the web server,
+ * so this application writes nothing while it runs; other processes writing the same tables must be
+ * stopped. It requires {@code datajpa.audit.binary-auditors=true}, the mapping the migrated columns need.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "datajpa.audit.migrate-binary-auditors", havingValue = "true")
+public class AuditorColumnMigration implements InitializingBean {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final String[] AUDITOR_COLUMNS = {"created_by", "last_modified_by"};
+    private static final String BINARY_SUFFIX = "_bin";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BinaryAuditorConverter converter = new BinaryAuditorConverter();
+
+    @Value("${datajpa.audit.binary-auditors:false}")
+    private boolean binaryAuditors;
+
+    public AuditorColumnMigration(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (!binaryAuditors) {
+            throw new IllegalStateException("datajpa.audit.migrate-binary-auditors=true requires datajpa.audit.binary-auditors=true");
+        }
+        migrate("member", "member_id", AUDITOR_COLUMNS);
+        migrate("team", "team_id", AUDITOR_COLUMNS);
+    }
+
+    public void migrate(String table, String idColumn, String... columns) {
+        if (columnType(table, idColumn) == null) {
+            log.info("No table {} to migrate", table);
+            return;
+        }
+        for (String column : columns) {
+            migrateColumn(table, idColumn, column);
+        }
+    }
+
+    private void migrateColumn(String table, String idColumn, String column) {
+        String binary = column + BINARY_SUFFIX;
+        Integer type = columnType(table, column);
+        boolean hasBinary = columnType(table, binary) != null;
+
+        if (type == null) {
+            if (!hasBinary) {
+                throw new IllegalArgumentException("No column " + table + "." + column);
+            }
+            jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + binary + " RENAME TO " + column);
+            log.info("Finished interrupted migration of {}.{}", table, column);
+            return;
+        }
+        if (isBinary(type)) {
+            if (hasBinary) {
+                jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + binary);
+            }
+            return;
+        }
+
+        long before = storedBytes(table, List.of(column));
+        if (!hasBinary) {
+            jdbcTemplate.execute("ALTER TABLE " + table + " ADD COLUMN " + binary + " VARBINARY(" + BinaryAuditorConverter.MAX_LENGTH + ")");
+        }
+
+        String select = "SELECT " + idColumn + ", " + column + ", " + binary + " FROM " + table
+                + " WHERE " + idColumn + " > ? ORDER BY " + idColumn + " LIMIT " + CHUNK_SIZE;
+        String first = "SELECT " + idColumn + ", " + column + ", " + binary + " FROM " + table
+                + " ORDER BY " + idColumn + " LIMIT " + CHUNK_SIZE;
+        String update = "UPDATE " + table + " SET " + binary + " = ? WHERE " + idColumn + " = ?";
+        Object[] lastId = {null};
+        long rewritten = 0;
+        int scanned;
+        do {
+            int[] counts = transactionTemplate.execute(status -> copyChunk(lastId, first, select, update));
+            scanned = counts[0];
+            rewritten += counts[1];
+        } while (scanned == CHUNK_SIZE);
+
+        jdbcTemplate.execute("ALTER TABLE " + table + " DROP COLUMN " + column);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN " + binary + " RENAME TO " + column);
+        log.info("Migrated auditor column {}.{} ({} rows rewritten): {} -> {} bytes",
+                table, column, rewritten, before, storedBytes(table, List.of(column)));
+    }
+
+    private int[] copyChunk(Object[] lastId, String first, String select, String update) {
+        RowMapper<Object[]> row = (rs, rowNum) -> new Object[]{rs.getObject(1), rs.getString(2), rs.getBytes(3)};
+        List<Object[]> rows = lastId[0] == null
+                ? jdbcTemplate.query(first, row)
+                : jdbcTemplate.query(select, row, lastId[0]);
+        List<Object[]> stale = new ArrayList<>();
+        for (Object[] r : rows) {
+            byte[] expected = converter.convertToDatabaseColumn((String) r[1]);
+            if (!Arrays.equals(expected, (byte[]) r[2])) {
+                stale.add(new Object[]{expected, r[0]});
+            }
+        }
+        if (!stale.isEmpty()) {
+            jdbcTemplate.batchUpdate(update, stale);
+        }
+        if (!rows.isEmpty()) {
+            lastId[0] = rows.get(rows.size() - 1)[0];
+        }
+        return new int[]{rows.size(), stale.size()};
+    }
+
+    /**
+     * Makes the EntityManagerFactory, and with it everything that writes through JPA, wait for the migration.
+     */
+    @Component
+    @ConditionalOnProperty(name = "datajpa.audit.migrate-binary-auditors", havingValue = "true")
+    static class EntityManagerFactoryDependsOnMigration extends EntityManagerFactoryDependsOnPostProcessor {
+
+        EntityManagerFactoryDependsOnMigration() {
+            super(AuditorColumnMigration.class);
+        }
+    }
+
+    public long storedBytes(String table, List<String> columns) {
+        StringBuilder sql = new StringBuilder("SELECT COALESCE(SUM(");
+        for (int i = 0; i < columns.size(); i++) {
+            sql.append(i == 0 ? "" : " + ").append("COALESCE(OCTET_LENGTH(").append(columns.get(i)).append("), 0)");
+        }
+        sql.append("), 0) FROM ").append(table);
+        Long bytes = jdbcTemplate.queryForObject(sql.toString(), Long.class);
+        return bytes == null ? 0 : bytes;
+    }
+
+    private Integer columnType(String table, String column) {
+        return jdbcTemplate.execute((ConnectionCallback<Integer>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String name : new String[]{column.toUpperCase(Locale.ROOT), column}) {
+                ResultSet rs = metaData.getColumns(null, null, table.toUpperCase(Locale.ROOT), name);
+                try {
+                    if (rs.next()) {
+                        return rs.getInt("DATA_TYPE");
+                    }
+                } finally {
+                    JdbcUtils.closeResultSet(rs);
+                }
+            }
+            return null;
+        });
+    }
+
+    private static boolean isBinary(int type) {
+        return type == Types.BINARY || type == Types.VARBINARY || type == Types.LONGVARBINARY;
+    }
+}
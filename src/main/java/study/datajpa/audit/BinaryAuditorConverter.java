@@ -0,0 +1,72 @@
+package study.datajpa.audit;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Stores a UUID auditor as its 16 raw bytes instead of a 36-character string. Any other auditor is kept
+ * as UTF-8; one that happens to encode to exactly 16 bytes gets a trailing zero byte so it cannot be
+ * read back as a UUID. Applied to the auditor columns of {@code BaseEntity} through {@link #MAPPING} when
+ * {@code datajpa.audit.binary-auditors=true}; existing schemas also need
+ * {@code datajpa.audit.migrate-binary-auditors=true} so that {@link AuditorColumnMigration} converts them on startup.
+ */
+@Converter
+public class BinaryAuditorConverter implements AttributeConverter<String, byte[]> {
+
+    public static final int MAX_LENGTH = 64;
+    public static final String MAPPING = "META-INF/binary-auditors.orm.xml";
+
+    private static final int UUID_LENGTH = 16;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String auditor) {
+        if (auditor == null) {
+            return null;
+        }
+        UUID uuid = parse(auditor);
+        if (uuid != null) {
+            return ByteBuffer.allocate(UUID_LENGTH)
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .array();
+        }
+
+        byte[] bytes = auditor.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == UUID_LENGTH) {
+            bytes = Arrays.copyOf(bytes, UUID_LENGTH + 1);
+        }
+        if (bytes.length > MAX_LENGTH) {
+            throw new IllegalArgumentException("Auditor longer than " + MAX_LENGTH + " bytes: " + auditor);
+        }
+        return bytes;
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        if (column.length == UUID_LENGTH) {
+            ByteBuffer buffer = ByteBuffer.wrap(column);
+            return new UUID(buffer.getLong(), buffer.getLong()).toString();
+        }
+        int length = column.length == UUID_LENGTH + 1 && column[UUID_LENGTH] == 0 ? UUID_LENGTH : column.length;
+        return new String(column, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static UUID parse(String auditor) {
+        if (auditor.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(auditor);
+            return uuid.toString().equals(auditor) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package study.datajpa.audit;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall clock that a single daemon thread refreshes every {@code resolution}; readers only do a volatile
+ * read. Audit timestamps within one tick share a value, which is what a batch of inserts wants anyway.
+ */
+public final class CoarseClock {
+
+    public static final CoarseClock SHARED = new CoarseClock(Duration.ofMillis(10));
+
+    private final ScheduledExecutorService ticker;
+    private volatile LocalDateTime now = LocalDateTime.now();
+
+    public CoarseClock(Duration resolution) {
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "coarse-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long nanos = resolution.toNanos();
+        ticker.scheduleAtFixedRate(() -> now = LocalDateTime.now(), nanos, nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public LocalDateTime now() {
+        return now;
+    }
+
+    public void stop() {
+        ticker.shutdownNow();
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.audit;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Resolves the auditor once per web request, or once per transaction outside of a request, instead of
+ * once per saved entity. Only calls without either scope reach the delegate every time.
+ */
+@RequiredArgsConstructor
+public class ScopedAuditorAware implements AuditorAware<String> {
+
+    private static final String REQUEST_ATTRIBUTE = ScopedAuditorAware.class.getName() + ".AUDITOR";
+
+    private final Supplier<String> resolver;
+
+    @Override
+    public Optional<String> getCurrentAuditor() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null) {
+            String auditor = (String) request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            if (auditor == null) {
+                auditor = resolver.get();
+                request.setAttribute(REQUEST_ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+            }
+            return Optional.ofNullable(auditor);
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            String auditor = (String) TransactionSynchronizationManager.getResource(this);
+            if (auditor == null) {
+                auditor = resolver.get();
+                TransactionSynchronizationManager.bindResource(this, auditor);
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCompletion(int status) {
+                        TransactionSynchronizationManager.unbindResourceIfPossible(ScopedAuditorAware.this);
+                    }
+                });
+            }
+            return Optional.of(auditor);
+        }
+
+        return Optional.ofNullable(resolver.get());
+    }
+}
@@ -1,22 +1,51 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import study.datajpa.dto.MemberCreateDto;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.KeysetSlice;
+import study.datajpa.repository.MemberCursor;
 import study.datajpa.repository.MemberRepository;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 @RequiredArgsConstructor
 @RestController
 public class MemberController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final MemberRepository memberRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${datajpa.export.fetch-size:500}")
+    private int defaultExportFetchSize;
 
     @GetMapping("/members1/{id}")
     public String findMember1(@PathVariable Long id) {
@@ -32,13 +61,58 @@ public class MemberController {
     @GetMapping("/members")
     public Page<MemberDto> list(@PageableDefault(size = 5, sort = "id", direction = Sort.Direction.DESC) Pageable pageable) {
         Page<Member> page = memberRepository.findAll(pageable);
-        return page.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
+        return page.map(m -> new MemberDto(m.getId(), m.getUsername(), m.getTeam() == null ? null : m.getTeam().getName()));
+    }
+
+    @GetMapping(value = "/members", params = "cursor")
+    public KeysetSlice<MemberDto> keysetList(@RequestParam String cursor,
+                                             @RequestParam(defaultValue = "5") int size,
+                                             @RequestParam(defaultValue = "ID") MemberCursor.Key key,
+                                             @RequestParam(defaultValue = "DESC") Sort.Direction direction) {
+        MemberCursor memberCursor;
+        try {
+            memberCursor = cursor.isEmpty() ? MemberCursor.first(key, direction) : MemberCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        KeysetSlice<Member> slice = memberRepository.findMemberKeyset(memberCursor, Math.max(size, 1));
+        return slice.map(m -> new MemberDto(m.getId(), m.getUsername(), null));
+    }
+
+    @Transactional(readOnly = true)
+    @GetMapping(value = "/members/export", produces = NDJSON)
+    public void export(@RequestParam(required = false) Integer fetchSize, HttpServletResponse response) throws IOException {
+        int size = fetchSize == null || fetchSize < 1 ? defaultExportFetchSize : fetchSize;
+        response.setContentType(NDJSON);
+
+        ObjectWriter writer = objectMapper.writerFor(MemberDto.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long written = 0;
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(size);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            for (Iterator<Member> it = members.iterator(); it.hasNext(); ) {
+                Member m = it.next();
+                Team team = m.getTeam();
+                writer.writeValue(generator, new MemberDto(m.getId(), m.getUsername(), team == null ? null : team.getName()));
+                generator.writeRaw('\n');
+                if (++written % size == 0) generator.flush();
+            }
+        }
+    }
+
+    @PostMapping("/members/bulk")
+    public int bulk(@RequestBody List<MemberCreateDto> members) {
+        return memberRepository.bulkInsert(members.stream()
+                .map(dto -> new Member(dto.getUsername(), dto.getAge()))
+                .collect(Collectors.toList()));
     }
 
 //    @PostConstruct
     public void init() {
+        List<Member> members = new ArrayList<>();
         for (int i = 0; i < 100; i++) {
-            memberRepository.save(new Member("user" + i, i));
+            members.add(new Member("user" + i, i));
         }
+        memberRepository.bulkInsert(members);
     }
 }
@@ -0,0 +1,50 @@
+package study.datajpa.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.datajpa.sql.SqlStatistics;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@RestController
+public class StatisticsController {
+
+    private final EntityManagerFactory emf;
+    private final SqlStatistics sqlStatistics;
+
+    @GetMapping("/stats/cache")
+    public Map<String, Map<String, Long>> cache() {
+        Statistics statistics = emf.unwrap(SessionFactory.class).getStatistics();
+        Map<String, Map<String, Long>> result = new LinkedHashMap<>();
+        for (String region : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+            if (regionStatistics == null) continue;
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("hit", regionStatistics.getHitCount());
+            values.put("miss", regionStatistics.getMissCount());
+            values.put("put", regionStatistics.getPutCount());
+            values.put("elementsInMemory", regionStatistics.getElementCountInMemory());
+            result.put(region, values);
+        }
+        return result;
+    }
+
+    @GetMapping("/stats/sql")
+    public List<Map<String, Object>> sql() {
+        return sqlStatistics.snapshot();
+    }
+
+    @DeleteMapping("/stats/sql")
+    public void resetSql() {
+        sqlStatistics.reset();
+    }
+}
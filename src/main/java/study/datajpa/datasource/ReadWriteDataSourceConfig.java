@@ -0,0 +1,63 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Active once {@code datajpa.datasource.replicas} lists at least one replica. The primary pool is built
+ * from {@code spring.datasource}, each replica gets its own read-only pool.
+ * <p>
+ * The p6spy starter decorates every {@link DataSource} bean, so {@code readWriteDataSource} is listed in
+ * {@code decorator.datasource.exclude-beans}: only the routing source is decorated, and each statement is
+ * counted once. The order matters as well, since p6spy reads the metadata of every connection it hands
+ * out, which would make the lazy proxy pick a target before the transaction's read-only flag is set.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty("datajpa.datasource.replicas[0].url")
+@EnableConfigurationProperties({DataSourceProperties.class, ReplicaProperties.class})
+public class ReadWriteDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(DataSourceProperties primaryProperties,
+                                                                 ReplicaProperties replicaProperties) {
+        HikariDataSource primary = primaryProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<ReplicaProperties.Replica> configured = replicaProperties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaProperties.Replica replica = configured.get(i);
+            String name = replica.getName() != null ? replica.getName() : "replica-" + i;
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(replica.getUrl());
+            pool.setUsername(replica.getUsername());
+            pool.setPassword(replica.getPassword());
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+            pool.setReadOnly(true);
+            replicas.put(name, pool);
+        }
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                replicaProperties.getBalance(), replicaProperties.getLagQuery(), replicaProperties.getMaxLag());
+        routing.startLagChecks(replicaProperties.getLagCheckInterval());
+        return routing;
+    }
+
+    @Bean
+    @Primary
+    public DataSource readWriteDataSource(ReadWriteRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -0,0 +1,161 @@
+package study.datajpa.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out replica connections inside read-only transactions and primary connections otherwise. It has to
+ * sit behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, because the
+ * transaction manager asks for a connection before the read-only flag of the new transaction is visible.
+ * With a lag query configured, replicas that lag more than {@code maxLag}, or cannot be probed, leave the
+ * rotation until a later check sees them caught up; with no healthy replica, reads go to the primary.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final ReplicaBalance balance;
+    private final AtomicLong sequence = new AtomicLong();
+    private final String lagQuery;
+    private final Duration maxLag;
+    private ScheduledExecutorService lagChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaBalance balance,
+                                      String lagQuery, Duration maxLag) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.balance = balance;
+        this.lagQuery = lagQuery == null || lagQuery.isBlank() ? null : lagQuery;
+        this.maxLag = maxLag;
+    }
+
+    public void startLagChecks(Duration interval) {
+        if (lagQuery == null || lagChecker != null) {
+            return;
+        }
+        lagChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-guard");
+            thread.setDaemon(true);
+            return thread;
+        });
+        lagChecker.scheduleWithFixedDelay(this::checkLag, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void checkLag() {
+        if (lagQuery == null) {
+            return;
+        }
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery(lagQuery)) {
+                long lagMillis = rs.next() ? rs.getLong(1) : Long.MAX_VALUE;
+                healthy = lagMillis <= maxLag.toMillis();
+            } catch (SQLException | RuntimeException e) {
+                log.warn("Lag check failed for replica {}: {}", replica.name, e.getMessage());
+                healthy = false;
+            }
+            if (replica.healthy != healthy) {
+                log.info("Replica {} is {}", replica.name, healthy ? "back in rotation" : "out of rotation");
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Replica replica = route();
+        return replica == null ? primary.getConnection() : replica.track(replica.dataSource.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        Replica replica = route();
+        return replica == null
+                ? primary.getConnection(username, password)
+                : replica.track(replica.dataSource.getConnection(username, password));
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (lagChecker != null) {
+            lagChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable) {
+                ((AutoCloseable) replica.dataSource).close();
+            }
+        }
+        if (primary instanceof AutoCloseable) {
+            ((AutoCloseable) primary).close();
+        }
+    }
+
+    private Replica route() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        List<Replica> healthy = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            if (replica.healthy) healthy.add(replica);
+        }
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (balance == ReplicaBalance.LEAST_LOADED) {
+            return healthy.stream().min(Comparator.comparingInt(r -> r.active.get())).get();
+        }
+        return healthy.get((int) Math.floorMod(sequence.getAndIncrement(), (long) healthy.size()));
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final AtomicInteger active = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        Connection track(Connection connection) {
+            active.incrementAndGet();
+            boolean[] closed = {false};
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if ("close".equals(method.getName()) && !closed[0]) {
+                            closed[0] = true;
+                            active.decrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    });
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package study.datajpa.datasource;
+
+public enum ReplicaBalance {
+    ROUND_ROBIN, LEAST_LOADED
+}
@@ -1,32 +1,38 @@
 package study.datajpa.entity;
 
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Type;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.domain.Persistable;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.entity.id.TimeOrderedUuidGenerator;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EntityListeners;
+import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
 @Entity
-public class Item implements Persistable<String> {
+public class Item implements Persistable<UUID> {
 
     @Id
-    private String id;
+    @GeneratedValue(generator = "item_id")
+    @GenericGenerator(name = "item_id", strategy = TimeOrderedUuidGenerator.STRATEGY)
+    @Type(type = "uuid-binary")
+    @Column(columnDefinition = "binary(16)")
+    private UUID id;
 
     @CreatedDate
     private LocalDateTime createdDate;
 
-    public Item(String id) {
-        this.id = id;
-    }
-
     @Override
-    public String getId() {
+    public UUID getId() {
         return id;
     }
 
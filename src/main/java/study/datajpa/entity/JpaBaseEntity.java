@@ -3,28 +3,25 @@ package study.datajpa.entity;
 import lombok.Getter;
 
 import javax.persistence.Column;
+import javax.persistence.EntityListeners;
 import javax.persistence.MappedSuperclass;
-import javax.persistence.PrePersist;
-import javax.persistence.PreUpdate;
 import java.time.LocalDateTime;
 
 @Getter
 @MappedSuperclass
+@EntityListeners(JpaBaseEntityListener.class)
 public class JpaBaseEntity {
 
     @Column(updatable = false)
     private LocalDateTime createdDate;
     private LocalDateTime updatedDate;
 
-    @PrePersist
-    public void prePersist() {
-        LocalDateTime now = LocalDateTime.now();
+    void created(LocalDateTime now) {
         createdDate = now;
         updatedDate = now;
     }
 
-    @PreUpdate
-    public void preUpdate() {
-        updatedDate = LocalDateTime.now();
+    void updated(LocalDateTime now) {
+        updatedDate = now;
     }
 }
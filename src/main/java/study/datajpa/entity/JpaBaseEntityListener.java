@@ -0,0 +1,37 @@
+package study.datajpa.entity;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import java.time.LocalDateTime;
+
+/**
+ * Stamps {@link JpaBaseEntity} from the same {@link DateTimeProvider} that Spring Data auditing uses, so
+ * {@code datajpa.audit.coarse-clock} switches both. Hibernate obtains the listener from the Spring bean
+ * container, which injects the provider.
+ */
+public class JpaBaseEntityListener {
+
+    private final DateTimeProvider dateTimeProvider;
+
+    public JpaBaseEntityListener(DateTimeProvider dateTimeProvider) {
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
+    @PrePersist
+    public void prePersist(JpaBaseEntity entity) {
+        entity.created(now());
+    }
+
+    @PreUpdate
+    public void preUpdate(JpaBaseEntity entity) {
+        entity.updated(now());
+    }
+
+    private LocalDateTime now() {
+        return dateTimeProvider.getNow()
+                .map(LocalDateTime::from)
+                .orElseGet(LocalDateTime::now);
+    }
+}
@@ -1,9 +1,17 @@
 package study.datajpa.entity;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.entity.id.PooledSequenceGenerator;
 
 import javax.persistence.*;
 
@@ -16,22 +24,37 @@ import static lombok.AccessLevel.PROTECTED;
 @ToString(of = {"id", "username", "age"})
 @NamedQuery(
         name = "Member.findByUsername",
-        query = "SELECT m FROM Member m WHERE m.username = :username"
+        query = "SELECT m FROM Member m WHERE m.username = :username",
+        hints = {
+                @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+                @QueryHint(name = "org.hibernate.cacheRegion", value = "member-username")
+        }
 )
 @NamedEntityGraph(
         name = "Member.all",
         attributeNodes = @NamedAttributeNode("team")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
+@Table(indexes = {
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")
+})
 @Entity
 public class Member extends BaseEntity {
 
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "member_seq")
+    @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"))
     @Column(name = "member_id")
     private Long id;
     private String username;
     private int age;
 
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @ManyToOne(fetch = LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -52,7 +75,16 @@ public class Member extends BaseEntity {
     }
 
     public void changeTeam(Team team) {
+        if (this.team != null && isLoaded(this.team)) {
+            this.team.getMembers().remove(this);
+        }
         this.team = team;
-        team.getMembers().add(this);
+        if (isLoaded(team)) {
+            team.getMembers().add(this);
+        }
+    }
+
+    private static boolean isLoaded(Team team) {
+        return Hibernate.isInitialized(team) && Hibernate.isInitialized(team.getMembers());
     }
 }
@@ -0,0 +1,80 @@
+package study.datajpa.entity.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.hibernate.id.enhanced.Optimizer;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+public class LockFreePooledLoOptimizer implements Optimizer {
+
+    private final Class<?> returnClass;
+    private final int incrementSize;
+    private final AtomicReference<Block> current = new AtomicReference<>();
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile IntegralDataTypeHolder lastSourceValue;
+
+    public LockFreePooledLoOptimizer(Class<?> returnClass, int incrementSize) {
+        if (incrementSize < 1) {
+            throw new IllegalArgumentException("incrementSize must be positive: " + incrementSize);
+        }
+        this.returnClass = returnClass;
+        this.incrementSize = incrementSize;
+    }
+
+    @Override
+    public Serializable generate(AccessCallback callback) {
+        while (true) {
+            Block block = current.get();
+            if (block != null) {
+                long value = block.next.getAndIncrement();
+                if (value < block.hi) {
+                    return (Serializable) IdentifierGeneratorHelper.getIntegralDataTypeHolder(returnClass)
+                            .initialize(value)
+                            .makeValue();
+                }
+            }
+            refillLock.lock();
+            try {
+                if (current.get() == block) {
+                    IntegralDataTypeHolder lo = callback.getNextValue();
+                    lastSourceValue = lo.copy();
+                    long start = lo.makeValue().longValue();
+                    current.set(new Block(start, start + incrementSize));
+                }
+            } finally {
+                refillLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public IntegralDataTypeHolder getLastSourceValue() {
+        return lastSourceValue;
+    }
+
+    @Override
+    public int getIncrementSize() {
+        return incrementSize;
+    }
+
+    @Override
+    public boolean applyIncrementSizeToSourceValues() {
+        return true;
+    }
+
+    private static final class Block {
+
+        private final AtomicLong next;
+        private final long hi;
+
+        private Block(long lo, long hi) {
+            this.next = new AtomicLong(lo);
+            this.hi = hi;
+        }
+    }
+}
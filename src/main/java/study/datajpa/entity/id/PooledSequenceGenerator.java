@@ -0,0 +1,33 @@
+package study.datajpa.entity.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+/**
+ * Block size per sequence: {@code spring.jpa.properties.datajpa.id.<sequence_name>.block-size}.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+    public static final String STRATEGY = "study.datajpa.entity.id.PooledSequenceGenerator";
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        String sequenceName = params.getProperty(SEQUENCE_PARAM);
+        Object blockSize = serviceRegistry.getService(ConfigurationService.class)
+                .getSettings()
+                .get("datajpa.id." + sequenceName + ".block-size");
+        if (blockSize != null) {
+            params.setProperty(INCREMENT_PARAM, blockSize.toString());
+        } else if (!params.containsKey(INCREMENT_PARAM)) {
+            params.setProperty(INCREMENT_PARAM, String.valueOf(DEFAULT_BLOCK_SIZE));
+        }
+        params.setProperty(OPT_PARAM, LockFreePooledLoOptimizer.class.getName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
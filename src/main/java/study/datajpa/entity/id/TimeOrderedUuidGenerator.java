@@ -0,0 +1,48 @@
+package study.datajpa.entity.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+
+import java.io.Serializable;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UUIDv7 layout: 48-bit unix millis, 12-bit sequence within the millisecond, 62 random bits.
+ */
+public class TimeOrderedUuidGenerator implements IdentifierGenerator {
+
+    public static final String STRATEGY = "study.datajpa.entity.id.TimeOrderedUuidGenerator";
+
+    private static final int SEQUENCE_BITS = 12;
+    private static final AtomicLong LAST = new AtomicLong();
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return next();
+    }
+
+    public static UUID next() {
+        long stamp = nextStamp();
+        long millis = stamp >>> SEQUENCE_BITS;
+        long sequence = stamp & ((1L << SEQUENCE_BITS) - 1);
+
+        long msb = (millis << 16) | 0x7000L | sequence;
+        long lsb = (ThreadLocalRandom.current().nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(msb, lsb);
+    }
+
+    private static long nextStamp() {
+        while (true) {
+            long last = LAST.get();
+            long candidate = System.currentTimeMillis() << SEQUENCE_BITS;
+            if (candidate <= last) {
+                candidate = last + 1;
+            }
+            if (LAST.compareAndSet(last, candidate)) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+public class BulkProgress {
+
+    private final int chunks;
+    private final long scanned;
+    private final long affected;
+    private final long lastId;
+
+    private BulkProgress(int chunks, long scanned, long affected, long lastId) {
+        this.chunks = chunks;
+        this.scanned = scanned;
+        this.affected = affected;
+        this.lastId = lastId;
+    }
+
+    static BulkProgress start() {
+        return new BulkProgress(0, 0, 0, Long.MIN_VALUE);
+    }
+
+    BulkProgress next(int scanned, int affected, long lastId) {
+        return new BulkProgress(chunks + 1, this.scanned + scanned, this.affected + affected, lastId);
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Lets {@link InClauseChunkingPostProcessor} split the single collection argument of the annotated query
+ * method into chunks. Only queries whose chunked results concatenate to the result of one query qualify:
+ * no sorting, paging, row limit, DISTINCT, GROUP BY, aggregate, NOT IN or OR. The repository fails to
+ * start if an annotated method does not.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ChunkedInClause {
+}
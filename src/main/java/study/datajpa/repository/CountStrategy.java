@@ -0,0 +1,8 @@
+package study.datajpa.repository;
+
+public enum CountStrategy {
+
+    EXACT,
+    CACHED,
+    ESTIMATED
+}
@@ -0,0 +1,260 @@
+package study.datajpa.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+
+/**
+ * Splits the collection argument of a {@link ChunkedInClause} query method into chunks of at most
+ * {@code chunkSize} distinct elements when it holds more than that, runs the method once per chunk and
+ * concatenates the results in chunk order. Duplicate values are dropped first so that no row can match two
+ * chunks.
+ * <p>
+ * When an EntityManager is bound to the thread, by a transaction or by open-in-view, the chunks run one
+ * after another through it, so they see its pending writes and return entities of its persistence context.
+ * Otherwise they run on up to {@code parallelism} threads, each through the repository proxy and therefore
+ * in its own transaction and on its own connection. Every chunk task is wrapped by the {@link TaskDecorator}
+ * on the calling thread, which is how thread-bound state such as per-thread SQL counts follows the work.
+ * <p>
+ * Queries qualify only if each row matches at most one chunk: besides sorting, limits, DISTINCT, grouping
+ * and aggregates, a NOT IN or an OR next to the IN is rejected, because every chunk would match those rows
+ * again.
+ */
+@Slf4j
+public class InClauseChunkingPostProcessor implements RepositoryProxyPostProcessor {
+
+    private static final Pattern NOT_CONCATENABLE = Pattern.compile(
+            "\\b(ORDER\\s+BY|GROUP\\s+BY|DISTINCT|LIMIT|FETCH\\s+(FIRST|NEXT)|(COUNT|SUM|AVG|MIN|MAX)\\s*\\(|NOT\\s+IN\\b|OR\\b)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final int chunkSize;
+    private final int parallelism;
+    private final TaskDecorator taskDecorator;
+    private volatile ExecutorService executor;
+
+    public InClauseChunkingPostProcessor(EntityManagerFactory entityManagerFactory, int chunkSize, int parallelism,
+                                         TaskDecorator taskDecorator) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        this.entityManagerFactory = entityManagerFactory;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+        this.taskDecorator = taskDecorator;
+    }
+
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        Map<Method, Integer> chunkedParameters = new HashMap<>();
+        for (Method method : repositoryInformation.getRepositoryInterface().getMethods()) {
+            if (AnnotatedElementUtils.hasAnnotation(method, ChunkedInClause.class)) {
+                chunkedParameters.put(method, chunkedParameter(method, repositoryInformation.getDomainType()));
+            }
+        }
+        if (!chunkedParameters.isEmpty()) {
+            factory.addAdvice(new Interceptor(chunkedParameters));
+        }
+    }
+
+    private ExecutorService executor() {
+        ExecutorService current = executor;
+        if (current == null) {
+            synchronized (this) {
+                if (executor == null) {
+                    AtomicInteger threads = new AtomicInteger();
+                    ThreadPoolExecutor pool = new ThreadPoolExecutor(parallelism, parallelism, 30, TimeUnit.SECONDS,
+                            new LinkedBlockingQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "in-clause-chunk-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    pool.allowCoreThreadTimeOut(true);
+                    executor = pool;
+                }
+                current = executor;
+            }
+        }
+        return current;
+    }
+
+    private class Interceptor implements MethodInterceptor {
+
+        private final Map<Method, Integer> chunkedParameters;
+
+        Interceptor(Map<Method, Integer> chunkedParameters) {
+            this.chunkedParameters = chunkedParameters;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            Integer index = chunkedParameters.get(method);
+            if (index == null || !(invocation instanceof ProxyMethodInvocation)) {
+                return invocation.proceed();
+            }
+            Collection<?> values = (Collection<?>) invocation.getArguments()[index];
+            if (values == null || values.size() <= chunkSize) {
+                return invocation.proceed();
+            }
+            Set<?> distinct = new LinkedHashSet<>(values);
+            if (distinct.size() <= chunkSize) {
+                return invocation.proceed();
+            }
+
+            List<Collection<Object>> chunks = chunk(distinct, method.getParameterTypes()[index]);
+            List<Collection<?>> results = new ArrayList<>(chunks.size());
+            if (TransactionSynchronizationManager.hasResource(entityManagerFactory) || parallelism == 1) {
+                for (Collection<Object> chunk : chunks) {
+                    MethodInvocation copy = ((ProxyMethodInvocation) invocation).invocableClone(withArgument(invocation, index, chunk));
+                    results.add((Collection<?>) copy.proceed());
+                }
+            } else {
+                Object proxy = ((ProxyMethodInvocation) invocation).getProxy();
+                List<CompletableFuture<Collection<?>>> futures = new ArrayList<>(chunks.size());
+                for (Collection<Object> chunk : chunks) {
+                    Object[] args = withArgument(invocation, index, chunk);
+                    AtomicReference<Collection<?>> result = new AtomicReference<>();
+                    Runnable task = taskDecorator.decorate(() -> result.set(invokeProxy(proxy, method, args)));
+                    futures.add(CompletableFuture.supplyAsync(() -> {
+                        task.run();
+                        return result.get();
+                    }, executor()));
+                }
+                try {
+                    for (CompletableFuture<Collection<?>> future : futures) {
+                        results.add(future.join());
+                    }
+                } catch (CompletionException e) {
+                    futures.forEach(f -> f.cancel(false));
+                    throw e.getCause();
+                }
+            }
+            log.debug("{} ran in {} chunks for {} values", method.getName(), chunks.size(), distinct.size());
+            return merge(results, method.getReturnType());
+        }
+
+        private List<Collection<Object>> chunk(Collection<?> values, Class<?> parameterType) {
+            List<Collection<Object>> chunks = new ArrayList<>((values.size() + chunkSize - 1) / chunkSize);
+            Iterator<?> iterator = values.iterator();
+            while (iterator.hasNext()) {
+                Collection<Object> chunk = Set.class.isAssignableFrom(parameterType)
+                        ? new LinkedHashSet<>(chunkSize * 4 / 3 + 1)
+                        : new ArrayList<>(chunkSize);
+                while (chunk.size() < chunkSize && iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                }
+                chunks.add(chunk);
+            }
+            return chunks;
+        }
+
+        private Object[] withArgument(MethodInvocation invocation, int index, Collection<Object> chunk) {
+            Object[] args = invocation.getArguments().clone();
+            args[index] = chunk;
+            return args;
+        }
+
+        private Collection<?> invokeProxy(Object proxy, Method method, Object[] args) {
+            try {
+                return (Collection<?>) method.invoke(proxy, args);
+            } catch (InvocationTargetException e) {
+                Throwable target = e.getTargetException();
+                throw target instanceof RuntimeException ? (RuntimeException) target : new CompletionException(target);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Object merge(List<Collection<?>> results, Class<?> returnType) {
+            int size = results.stream().mapToInt(r -> r == null ? 0 : r.size()).sum();
+            Collection<Object> merged = Set.class.isAssignableFrom(returnType)
+                    ? new LinkedHashSet<>(size * 4 / 3 + 1)
+                    : new ArrayList<>(size);
+            for (Collection<?> result : results) {
+                if (result != null) merged.addAll(result);
+            }
+            return merged;
+        }
+    }
+
+    static int chunkedParameter(Method method, Class<?> domainType) {
+        Class<?> returnType = method.getReturnType();
+        if (returnType != List.class && returnType != Collection.class && returnType != Set.class) {
+            throw notChunkable(method, "it does not return a List, Set or Collection");
+        }
+        if (AnnotatedElementUtils.hasAnnotation(method, Modifying.class)) {
+            throw notChunkable(method, "it modifies");
+        }
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        if (query == null) {
+            PartTree tree;
+            try {
+                tree = new PartTree(method.getName(), domainType);
+            } catch (RuntimeException e) {
+                throw notChunkable(method, "it is not a derived query: " + e.getMessage());
+            }
+            if (tree.isLimiting() || tree.isDistinct() || tree.getSort().isSorted()
+                    || tree.isCountProjection() || tree.isExistsProjection() || tree.isDelete()) {
+                throw notChunkable(method, "its derived query limits, sorts, de-duplicates or aggregates");
+            }
+            if (tree.stream().count() > 1 || tree.getParts(Part.Type.NOT_IN).iterator().hasNext()) {
+                throw notChunkable(method, "its derived query has an OR or a NOT IN");
+            }
+        } else if (query.value().isEmpty() || NOT_CONCATENABLE.matcher(query.value()).find()) {
+            throw notChunkable(method, "its query is named, sorts, limits, de-duplicates, aggregates or has an OR or a NOT IN");
+        }
+
+        int index = -1;
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            Class<?> type = parameterTypes[i];
+            if (Sort.class.isAssignableFrom(type) || Pageable.class.isAssignableFrom(type)) {
+                throw notChunkable(method, "it takes a Sort or Pageable");
+            }
+            if (type == Collection.class || type == List.class || type == Set.class) {
+                if (index >= 0) throw notChunkable(method, "it takes more than one collection");
+                index = i;
+            }
+        }
+        if (index < 0) throw notChunkable(method, "it takes no collection");
+        return index;
+    }
+
+    private static IllegalStateException notChunkable(Method method, String reason) {
+        return new IllegalStateException("@ChunkedInClause on " + method + " cannot be honoured: " + reason);
+    }
+}
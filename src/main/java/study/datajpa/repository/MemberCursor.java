@@ -0,0 +1,94 @@
+package study.datajpa.repository;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberCursor {
+
+    private static final String DELIMITER = "|";
+    private static final String VALUE_PREFIX = "=";
+
+    private final Key key;
+    private final Sort.Direction direction;
+    private final Long id;
+    private final Object value;
+
+    public static MemberCursor first(Key key, Sort.Direction direction) {
+        return new MemberCursor(key, direction, null, null);
+    }
+
+    public static MemberCursor after(Member member, Key key, Sort.Direction direction) {
+        return new MemberCursor(key, direction, member.getId(), key.valueOf(member));
+    }
+
+    public static MemberCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + DELIMITER, 4);
+            Key key = Key.valueOf(parts[0]);
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Long id = Long.valueOf(parts[2]);
+            Object value = key == Key.ID || !parts[3].startsWith(VALUE_PREFIX)
+                    ? null
+                    : key.parse(parts[3].substring(VALUE_PREFIX.length()));
+            return new MemberCursor(key, direction, id, value);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid member cursor: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String raw = key + DELIMITER + direction + DELIMITER + id + DELIMITER + (value == null ? "" : VALUE_PREFIX + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public boolean isFirst() {
+        return id == null;
+    }
+
+    public enum Key {
+        ID("id", false),
+        USERNAME("username", true),
+        AGE("age", false);
+
+        private final String property;
+        private final boolean nullable;
+
+        Key(String property, boolean nullable) {
+            this.property = property;
+            this.nullable = nullable;
+        }
+
+        public String getProperty() {
+            return property;
+        }
+
+        public boolean isNullable() {
+            return nullable;
+        }
+
+        Object valueOf(Member member) {
+            switch (this) {
+                case USERNAME: return member.getUsername();
+                case AGE: return member.getAge();
+                default: return null;
+            }
+        }
+
+        Object parse(String value) {
+            switch (this) {
+                case USERNAME: return value;
+                case AGE: return Integer.valueOf(value);
+                default: return null;
+            }
+        }
+    }
+}
@@ -1,9 +1,8 @@
 package study.datajpa.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
@@ -29,28 +28,53 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("SELECT new study.datajpa.dto.MemberDto(m.id, m.username, t.name) FROM Member m JOIN m.team t")
     List<MemberDto> findMemberDto();
 
+    @ChunkedInClause
     @Query("SELECT m FROM Member m WHERE m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
+    @ReadOnlyEntities
+    @Query("SELECT m FROM Member m WHERE m.username in :names")
+    List<Member> findByNamesReadOnly(@Param("names") Collection<String> names);
+
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member-username")
+    })
     List<Member> findListByUsername(String username);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member-username")
+    })
     Member findMemberByUsername(String username);
 
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.cacheable", value = "true"),
+            @QueryHint(name = "org.hibernate.cacheRegion", value = "member-username")
+    })
     Optional<Member> findOptionalByUsername(String username);
 
-    Page<Member> findByAge(int age, Pageable pageable);
-
+    @Transactional
     @Modifying(clearAutomatically = true)
-    @Query("UPDATE Member m SET m.age = m.age + 1 WHERE m.age >= :age")
+    @Query("UPDATE Member m SET m.age = m.age + 1, m.version = m.version + 1 WHERE m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     @Query("SELECT m FROM Member m JOIN FETCH m.team")
     List<Member> findMemberFetchJoin();
 
+    @ReadOnlyEntities
+    @Query("SELECT m FROM Member m JOIN FETCH m.team")
+    List<Member> findMemberFetchJoinReadOnly();
+
     @Override
     @EntityGraph(attributePaths = {"team"})
     List<Member> findAll();
 
+    @ReadOnlyEntities
+    @EntityGraph(attributePaths = {"team"})
+    @Query("SELECT m FROM Member m")
+    List<Member> findAllReadOnly();
+
     @EntityGraph(attributePaths = {"team"})
     @Query("SELECT m FROM Member m")
     List<Member> findMemberEntityGraph();
@@ -67,13 +91,6 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String username);
 
-    <T> List<T> findProjectionsByUsername(@Param("username") String username, Class<T> type);
-
     @Query(value = "SELECT * FROM Member WHERE username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
-
-    @Query(value = "SELECT m.member_id as id, m.username, t.name as teamName FROM Member m LEFT JOIN TEAM t",
-            countQuery = "SELECT COUNT(*) FROM Member",
-            nativeQuery = true)
-    Page<MemberProjection> findByNativeProjection(Pageable pageable);
 }
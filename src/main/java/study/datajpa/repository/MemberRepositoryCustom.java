@@ -1,10 +1,41 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
+
+    KeysetSlice<Member> findMemberKeyset(MemberCursor cursor, int size);
+
+    Page<Member> findAll(Pageable pageable);
+
+    Page<Member> findByAge(int age, Pageable pageable);
+
+    @ReadOnlyEntities
+    Page<Member> findByAgeReadOnly(int age, Pageable pageable);
+
+    Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    <T> List<T> findProjectionsByUsername(String username, Class<T> type);
+
+    Stream<Member> streamAllWithTeam(int fetchSize);
+
+    ScanCheckpoint scanInChunks(ScanCheckpoint from, int chunkSize, int parallelism,
+                                Consumer<List<Member>> handler, Consumer<ScanCheckpoint> listener);
+
+    int bulkInsert(List<Member> members);
+
+    BulkProgress bulkUpdate(String assignments, String condition, Map<String, ?> params, int chunkSize, Consumer<BulkProgress> listener);
+
+    List<Member> claimUnlocked(int limit, String sqlCondition, Object... args);
+
+    BulkProgress bulkDelete(String condition, Map<String, ?> params, int chunkSize, Consumer<BulkProgress> listener);
 }
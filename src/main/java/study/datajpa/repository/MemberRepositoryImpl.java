@@ -1,18 +1,503 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.projection.CompiledProjectionFactory;
+import study.datajpa.repository.projection.PrunedProjection;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import static org.springframework.data.jpa.repository.query.QueryUtils.applySorting;
+
+@Slf4j
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final String CHUNK_LOWER_ID = "chunkLowerId";
+    private static final String CHUNK_UPPER_ID = "chunkUpperId";
+    private static final String NATIVE_PROJECTION_QUERY =
+            "SELECT m.member_id as id, m.username, t.name as teamName FROM Member m LEFT JOIN TEAM t";
+
     private final EntityManager em;
+    private final TotalCountCache totalCountCache;
+    private final PlatformTransactionManager transactionManager;
+    private final ProjectionFactory projectionFactory = new CompiledProjectionFactory();
+    private final Map<Class<?>, Optional<PrunedProjection<?>>> prunedProjections = new ConcurrentHashMap<>();
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Value("${datajpa.bulk.pause:0ms}")
+    private Duration bulkPause;
+
+    private volatile SkipLockedSupport lockSupport;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("SELECT m FROM Member m", Member.class).getResultList();
     }
+
+    @Override
+    public KeysetSlice<Member> findMemberKeyset(MemberCursor cursor, int size) {
+        if (size < 1) throw new IllegalArgumentException("size must be positive: " + size);
+
+        MemberCursor.Key key = cursor.getKey();
+        boolean asc = cursor.getDirection().isAscending();
+        String op = asc ? ">" : "<";
+        String dir = asc ? "ASC" : "DESC";
+        String property = "m." + key.getProperty();
+
+        // NULL sorts before every value: first when ascending, last when descending
+        boolean nullValue = key.isNullable() && !cursor.isFirst() && cursor.getValue() == null;
+        StringBuilder jpql = new StringBuilder("SELECT m FROM Member m");
+        if (!cursor.isFirst()) {
+            if (key == MemberCursor.Key.ID) {
+                jpql.append(" WHERE m.id ").append(op).append(" :id");
+            } else if (nullValue) {
+                jpql.append(" WHERE (").append(property).append(" IS NULL AND m.id ").append(op).append(" :id)");
+                if (asc) {
+                    jpql.append(" OR ").append(property).append(" IS NOT NULL");
+                }
+            } else {
+                jpql.append(" WHERE ").append(property).append(" ").append(op).append(" :value")
+                        .append(" OR (").append(property).append(" = :value AND m.id ").append(op).append(" :id)");
+                if (key.isNullable() && !asc) {
+                    jpql.append(" OR ").append(property).append(" IS NULL");
+                }
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (key != MemberCursor.Key.ID) {
+            jpql.append(property).append(" ").append(dir);
+            if (key.isNullable()) {
+                jpql.append(asc ? " NULLS FIRST" : " NULLS LAST");
+            }
+            jpql.append(", ");
+        }
+        jpql.append("m.id ").append(dir);
+
+        TypedQuery<Member> query = em.createQuery(jpql.toString(), Member.class);
+        if (!cursor.isFirst()) {
+            query.setParameter("id", cursor.getId());
+            if (key != MemberCursor.Key.ID && !nullValue) {
+                query.setParameter("value", cursor.getValue());
+            }
+        }
+        List<Member> result = query.setMaxResults(size + 1).getResultList();
+
+        boolean hasNext = result.size() > size;
+        List<Member> content = hasNext ? result.subList(0, size) : result;
+        String nextCursor = hasNext
+                ? MemberCursor.after(content.get(content.size() - 1), key, cursor.getDirection()).encode()
+                : null;
+        return new KeysetSlice<>(content, hasNext, nextCursor);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Member> findAll(Pageable pageable) {
+        String jpql = applySorting("SELECT m FROM Member m", pageable.getSort(), "m");
+        List<Member> content = page(em.createQuery(jpql, Member.class), pageable).getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, this::countAll);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Member> findByAge(int age, Pageable pageable) {
+        String jpql = applySorting("SELECT m FROM Member m WHERE m.age = :age", pageable.getSort(), "m");
+        List<Member> content = page(em.createQuery(jpql, Member.class), pageable)
+                .setParameter("age", age)
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, () -> totalCountCache.count("member", "findByAge", List.of(age),
+                () -> em.createQuery("SELECT COUNT(m) FROM Member m WHERE m.age = :age", Long.class)
+                        .setParameter("age", age)
+                        .getSingleResult()));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Member> findByAgeReadOnly(int age, Pageable pageable) {
+        return findByAge(age, pageable);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public Page<MemberProjection> findByNativeProjection(Pageable pageable) {
+        Query query = page(em.createNativeQuery(applySorting(NATIVE_PROJECTION_QUERY, pageable.getSort(), "m")), pageable);
+        @SuppressWarnings("unchecked")
+        List<Object[]> rows = query.getResultList();
+        List<MemberProjection> content = rows.stream()
+                .map(row -> {
+                    Map<String, Object> values = new HashMap<>();
+                    values.put("id", row[0]);
+                    values.put("username", row[1]);
+                    values.put("teamName", row[2]);
+                    return projectionFactory.createProjection(MemberProjection.class, values);
+                })
+                .collect(Collectors.toList());
+        return PageableExecutionUtils.getPage(content, pageable, this::countAll);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> List<T> findProjectionsByUsername(String username, Class<T> type) {
+        Optional<PrunedProjection<?>> pruned = prunedProjections.computeIfAbsent(type,
+                t -> PrunedProjection.of(projectionFactory, em.getMetamodel(), Member.class, "m", t).map(p -> p));
+        if (pruned.isPresent()) {
+            PrunedProjection<T> projection = (PrunedProjection<T>) pruned.get();
+            List<?> rows = em.createQuery("SELECT " + projection.getSelect() + " FROM Member m" + projection.getJoins()
+                            + " WHERE m.username = :username")
+                    .setParameter("username", username)
+                    .getResultList();
+            return projection.map(rows, projectionFactory);
+        }
+
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException("Cannot project Member onto " + type.getName());
+        }
+        return em.createQuery("SELECT m FROM Member m WHERE m.username = :username", Member.class)
+                .setParameter("username", username)
+                .getResultStream()
+                .map(m -> projectionFactory.createProjection(type, m))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every {@code fetchSize} rows the members and teams the stream itself brought into the persistence
+     * context are detached again; entities the caller already held stay managed.
+     */
+    @Override
+    public Stream<Member> streamAllWithTeam(int fetchSize) {
+        Set<Object> held = managedEntities();
+        Set<Object> loaded = Collections.newSetFromMap(new IdentityHashMap<>());
+        AtomicLong rows = new AtomicLong();
+        return em.createQuery("SELECT m FROM Member m LEFT JOIN FETCH m.team", Member.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .peek(m -> {
+                    if (rows.getAndIncrement() % fetchSize == 0) {
+                        loaded.forEach(em::detach);
+                        loaded.clear();
+                    }
+                    if (!held.contains(m)) loaded.add(m);
+                    if (m.getTeam() != null && !held.contains(m.getTeam())) loaded.add(m.getTeam());
+                });
+    }
+
+    /**
+     * Walks all members in id order, {@code chunkSize} at a time, each chunk loaded with its team by an id
+     * range scan in its own transaction, so the persistence context never holds more than one chunk. With
+     * {@code parallelism > 1} the chunk boundaries are read up front and at most {@code parallelism} chunks
+     * are loaded and handled concurrently; the listener still sees checkpoints in id order, only once every
+     * earlier chunk has been handled. When a handler fails, no further chunks are started and the exception
+     * is rethrown after the running ones finish.
+     */
+    @Override
+    public ScanCheckpoint scanInChunks(ScanCheckpoint from, int chunkSize, int parallelism,
+                                       Consumer<List<Member>> handler, Consumer<ScanCheckpoint> listener) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return parallelism == 1
+                ? scanSequentially(from, chunkSize, chunkTransaction, handler, listener)
+                : scanInParallel(from, chunkSize, parallelism, chunkTransaction, handler, listener);
+    }
+
+    private ScanCheckpoint scanSequentially(ScanCheckpoint from, int chunkSize, TransactionTemplate chunkTransaction,
+                                            Consumer<List<Member>> handler, Consumer<ScanCheckpoint> listener) {
+        // an EntityManager kept open by open-in-view serves every chunk transaction
+        Set<Object> held = TransactionSynchronizationManager.hasResource(em.getEntityManagerFactory()) ? managedEntities() : Set.of();
+        ScanCheckpoint checkpoint = from;
+        while (true) {
+            long lastId = checkpoint.getLastId();
+            long[] handled = chunkTransaction.execute(status -> {
+                List<Member> chunk = em.createQuery(
+                                "SELECT m FROM Member m LEFT JOIN FETCH m.team WHERE m.id > :lastId ORDER BY m.id", Member.class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                if (chunk.isEmpty()) {
+                    return null;
+                }
+                handler.accept(chunk);
+                detachLoaded(chunk, held);
+                return new long[]{chunk.size(), chunk.get(chunk.size() - 1).getId()};
+            });
+            if (handled == null) {
+                return checkpoint;
+            }
+            checkpoint = checkpoint.next((int) handled[0], handled[1]);
+            listener.accept(checkpoint);
+        }
+    }
+
+    private ScanCheckpoint scanInParallel(ScanCheckpoint from, int chunkSize, int parallelism, TransactionTemplate chunkTransaction,
+                                          Consumer<List<Member>> handler, Consumer<ScanCheckpoint> listener) {
+        ScanSequence sequence = new ScanSequence(from, listener);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Semaphore slots = new Semaphore(parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            long lastId = from.getLastId();
+            for (int seq = 0; failure.get() == null; seq++) {
+                List<Long> ids = em.createQuery("SELECT m.id FROM Member m WHERE m.id > :lastId ORDER BY m.id", Long.class)
+                        .setParameter("lastId", lastId)
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long lowerId = lastId;
+                long upperId = ids.get(ids.size() - 1);
+                lastId = upperId;
+
+                slots.acquire();
+                int chunkSeq = seq;
+                executor.execute(() -> {
+                    try {
+                        if (failure.get() != null) {
+                            return;
+                        }
+                        Integer scanned = chunkTransaction.execute(status -> {
+                            List<Member> chunk = em.createQuery("SELECT m FROM Member m LEFT JOIN FETCH m.team"
+                                            + " WHERE m.id > :lowerId AND m.id <= :upperId ORDER BY m.id", Member.class)
+                                    .setParameter("lowerId", lowerId)
+                                    .setParameter("upperId", upperId)
+                                    .getResultList();
+                            handler.accept(chunk);
+                            return chunk.size();
+                        });
+                        sequence.complete(chunkSeq, scanned, upperId);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        slots.release();
+                    }
+                });
+            }
+            slots.acquire(parallelism);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Throwable e = failure.get();
+        if (e instanceof RuntimeException) throw (RuntimeException) e;
+        if (e instanceof Error) throw (Error) e;
+        if (e != null) throw new IllegalStateException("Chunked scan interrupted at " + sequence.current(), e);
+        return sequence.current();
+    }
+
+    @Transactional
+    @Override
+    public int bulkInsert(List<Member> members) {
+        List<Member> batch = new ArrayList<>(batchSize);
+        for (Member member : members) {
+            em.persist(member);
+            batch.add(member);
+            if (batch.size() == batchSize) {
+                em.flush();
+                batch.forEach(em::detach);
+                batch.clear();
+            }
+        }
+        em.flush();
+        batch.forEach(em::detach);
+        return members.size();
+    }
+
+    /**
+     * {@code assignments} and {@code condition} are JPQL fragments over the alias {@code m} and are
+     * concatenated into the statement as they are, so they must come from code, never from user input;
+     * values belong in {@code params}. Each chunk commits on its own, which is why the call is rejected
+     * inside a transaction: the caller's pending changes to the touched members would be lost, and its
+     * flushed row locks would block the chunks.
+     */
+    @Override
+    public BulkProgress bulkUpdate(String assignments, String condition, Map<String, ?> params, int chunkSize, Consumer<BulkProgress> listener) {
+        return chunked("UPDATE Member m SET " + assignments + ", m.version = m.version + 1", condition, params, chunkSize, listener);
+    }
+
+    @Override
+    public BulkProgress bulkDelete(String condition, Map<String, ?> params, int chunkSize, Consumer<BulkProgress> listener) {
+        return chunked("DELETE FROM Member m", condition, params, chunkSize, listener);
+    }
+
+    private BulkProgress chunked(String mutation, String condition, Map<String, ?> params, int chunkSize, Consumer<BulkProgress> listener) {
+        if (chunkSize < 1) throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        if (params.containsKey(CHUNK_LOWER_ID) || params.containsKey(CHUNK_UPPER_ID)) {
+            throw new IllegalArgumentException("Parameter names " + CHUNK_LOWER_ID + " and " + CHUNK_UPPER_ID + " are reserved");
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Chunked bulk mutations commit per chunk and cannot join the caller's transaction");
+        }
+
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        String where = condition == null || condition.isBlank() ? "" : " AND (" + condition + ")";
+
+        BulkProgress progress = BulkProgress.start();
+        while (true) {
+            long lastId = progress.getLastId();
+            int[] affected = new int[1];
+            List<Long> ids = chunkTransaction.execute(status -> {
+                TypedQuery<Long> select = em.createQuery("SELECT m.id FROM Member m WHERE m.id > :" + CHUNK_LOWER_ID
+                                + where + " ORDER BY m.id", Long.class)
+                        .setParameter(CHUNK_LOWER_ID, lastId)
+                        .setMaxResults(chunkSize);
+                params.forEach(select::setParameter);
+                List<Long> chunk = select.getResultList();
+                if (!chunk.isEmpty()) {
+                    Query mutate = em.createQuery(mutation + " WHERE m.id > :" + CHUNK_LOWER_ID
+                                    + " AND m.id <= :" + CHUNK_UPPER_ID + where)
+                            .setParameter(CHUNK_LOWER_ID, lastId)
+                            .setParameter(CHUNK_UPPER_ID, chunk.get(chunk.size() - 1));
+                    params.forEach(mutate::setParameter);
+                    affected[0] = mutate.executeUpdate();
+                    // an EntityManager kept open by open-in-view outlives the chunk
+                    detachManaged(chunk);
+                }
+                return chunk;
+            });
+            if (ids == null || ids.isEmpty()) {
+                return progress;
+            }
+
+            progress = progress.next(ids.size(), affected[0], ids.get(ids.size() - 1));
+            log.debug("Bulk mutation chunk {}: {}", progress.getChunks(), progress);
+            listener.accept(progress);
+
+            if (!bulkPause.isZero()) {
+                try {
+                    Thread.sleep(bulkPause.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return progress;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<Member> claimUnlocked(int limit, String sqlCondition, Object... args) {
+        if (limit < 1) throw new IllegalArgumentException("limit must be positive: " + limit);
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("claimUnlocked must run in a transaction that holds the claimed rows");
+        }
+
+        String condition = sqlCondition == null || sqlCondition.isBlank() ? "1 = 1" : sqlCondition;
+        List<Long> ids = em.unwrap(Session.class).doReturningWork(connection -> {
+            if (lockSupport == null) {
+                lockSupport = SkipLockedSupport.of(connection.getMetaData());
+            }
+            return lockSupport.claim(connection, limit, condition, args);
+        });
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return em.createQuery("SELECT m FROM Member m WHERE m.id IN :ids ORDER BY m.id", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    private Set<Object> managedEntities() {
+        Set<Object> managed = Collections.newSetFromMap(new IdentityHashMap<>());
+        managed.addAll(em.unwrap(SessionImplementor.class).getPersistenceContextInternal().getEntitiesByKey().values());
+        return managed;
+    }
+
+    private void detachLoaded(List<Member> members, Set<Object> held) {
+        for (Member member : members) {
+            if (!held.contains(member)) em.detach(member);
+            if (member.getTeam() != null && !held.contains(member.getTeam())) em.detach(member.getTeam());
+        }
+    }
+
+    private void detachManaged(List<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+    }
+
+    private static class ScanSequence {
+
+        private final Map<Integer, long[]> completed = new HashMap<>();
+        private final Consumer<ScanCheckpoint> listener;
+        private ScanCheckpoint checkpoint;
+        private int next;
+
+        ScanSequence(ScanCheckpoint from, Consumer<ScanCheckpoint> listener) {
+            this.checkpoint = from;
+            this.listener = listener;
+        }
+
+        synchronized void complete(int seq, int scanned, long lastId) {
+            completed.put(seq, new long[]{scanned, lastId});
+            for (long[] chunk; (chunk = completed.remove(next)) != null; next++) {
+                checkpoint = checkpoint.next((int) chunk[0], chunk[1]);
+                listener.accept(checkpoint);
+            }
+        }
+
+        synchronized ScanCheckpoint current() {
+            return checkpoint;
+        }
+    }
+
+    private long countAll() {
+        return totalCountCache.countAll("member",
+                () -> em.createQuery("SELECT COUNT(m) FROM Member m", Long.class).getSingleResult());
+    }
+
+    private static <Q extends Query> Q page(Q query, Pageable pageable) {
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+        }
+        return query;
+    }
 }
@@ -0,0 +1,18 @@
+package study.datajpa.repository;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Entities loaded by the annotated repository method, or by every method of an annotated repository,
+ * are read-only even inside a read-write transaction: Hibernate keeps no snapshot of them and leaves them
+ * out of the dirty check on flush. Changes made to them are silently ignored.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReadOnlyEntities {
+}
@@ -0,0 +1,73 @@
+package study.datajpa.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Session;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Applies {@link ReadOnlyEntities} by switching the transaction's session to default read-only for the
+ * duration of the call. Read-only transactions already load everything read-only, and outside a
+ * transaction there is no session to keep entities in, so only calls inside a read-write transaction
+ * are touched.
+ */
+public class ReadOnlyEntitiesPostProcessor implements RepositoryProxyPostProcessor {
+
+    private final EntityManager entityManager;
+
+    public ReadOnlyEntitiesPostProcessor(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        boolean repositoryWide = AnnotatedElementUtils.hasAnnotation(repositoryInformation.getRepositoryInterface(), ReadOnlyEntities.class);
+        factory.addAdvice(new Interceptor(entityManager, repositoryWide));
+    }
+
+    private static class Interceptor implements MethodInterceptor {
+
+        private final EntityManager entityManager;
+        private final boolean repositoryWide;
+        private final Map<Method, Boolean> readOnlyMethods = new ConcurrentHashMap<>();
+
+        Interceptor(EntityManager entityManager, boolean repositoryWide) {
+            this.entityManager = entityManager;
+            this.repositoryWide = repositoryWide;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (!isReadOnly(invocation.getMethod())
+                    || !TransactionSynchronizationManager.isActualTransactionActive()
+                    || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return invocation.proceed();
+            }
+
+            Session session = entityManager.unwrap(Session.class);
+            if (session.isDefaultReadOnly()) {
+                return invocation.proceed();
+            }
+            session.setDefaultReadOnly(true);
+            try {
+                return invocation.proceed();
+            } finally {
+                session.setDefaultReadOnly(false);
+            }
+        }
+
+        private boolean isReadOnly(Method method) {
+            return repositoryWide || readOnlyMethods.computeIfAbsent(method,
+                    m -> AnnotatedElementUtils.hasAnnotation(m, ReadOnlyEntities.class));
+        }
+    }
+}
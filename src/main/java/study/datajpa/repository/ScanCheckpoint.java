@@ -0,0 +1,35 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Position of a chunked scan. Every member with an id up to {@code lastId} has been handled, so a scan
+ * restarted from this checkpoint continues with the next chunk.
+ */
+@Getter
+@ToString
+public class ScanCheckpoint {
+
+    private final int chunks;
+    private final long scanned;
+    private final long lastId;
+
+    private ScanCheckpoint(int chunks, long scanned, long lastId) {
+        this.chunks = chunks;
+        this.scanned = scanned;
+        this.lastId = lastId;
+    }
+
+    public static ScanCheckpoint start() {
+        return new ScanCheckpoint(0, 0, Long.MIN_VALUE);
+    }
+
+    public static ScanCheckpoint after(long lastId) {
+        return new ScanCheckpoint(0, 0, lastId);
+    }
+
+    ScanCheckpoint next(int scanned, long lastId) {
+        return new ScanCheckpoint(chunks + 1, this.scanned + scanned, lastId);
+    }
+}
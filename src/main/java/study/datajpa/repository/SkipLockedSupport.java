@@ -0,0 +1,156 @@
+package study.datajpa.repository;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Locks up to {@code limit} member rows that no other transaction holds. Databases that understand
+ * {@code FOR UPDATE SKIP LOCKED} (PostgreSQL, MySQL 8, Oracle, H2 2.2+) do it in one statement. Oracle rejects a
+ * row limit next to {@code FOR UPDATE} and would apply {@code ROWNUM} before skipping, so there the unlimited
+ * query is read only up to {@code limit} rows; Oracle locks rows as they are fetched. Older H2 has neither SKIP
+ * LOCKED nor a NOWAIT that fails fast, so ids are first reserved in an in-process registry that claimers of this
+ * application skip, and only the reserved rows are locked; they are released when the claiming transaction
+ * completes. That registry lives in one JVM, so it coordinates only the workers of one instance; claimers in
+ * other processes block on the rows instead of skipping them.
+ */
+abstract class SkipLockedSupport {
+
+    static SkipLockedSupport of(DatabaseMetaData metaData) throws SQLException {
+        String product = metaData.getDatabaseProductName().toLowerCase(Locale.ROOT);
+        int major = metaData.getDatabaseMajorVersion();
+        int minor = metaData.getDatabaseMinorVersion();
+        if (product.contains("mysql") || product.contains("mariadb")) {
+            return new SkipLocked(" LIMIT ?");
+        }
+        if (product.contains("oracle")) {
+            return new FetchLimitedSkipLocked();
+        }
+        if (product.contains("h2") && (major < 2 || major == 2 && minor < 2)) {
+            return new InProcessClaims();
+        }
+        return new SkipLocked(" FETCH FIRST ? ROWS ONLY");
+    }
+
+    abstract List<Long> claim(Connection connection, int limit, String condition, Object[] args) throws SQLException;
+
+    private static List<Long> ids(PreparedStatement statement, List<Object> values) throws SQLException {
+        for (int i = 0; i < values.size(); i++) {
+            statement.setObject(i + 1, values.get(i));
+        }
+        List<Long> ids = new ArrayList<>();
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static List<Object> values(Object first, Object[] args, Object last) {
+        List<Object> values = new ArrayList<>(args.length + 2);
+        if (first != null) values.add(first);
+        Collections.addAll(values, args);
+        if (last != null) values.add(last);
+        return values;
+    }
+
+    private static final class SkipLocked extends SkipLockedSupport {
+
+        private final String limitClause;
+
+        SkipLocked(String limitClause) {
+            this.limitClause = limitClause;
+        }
+
+        @Override
+        List<Long> claim(Connection connection, int limit, String condition, Object[] args) throws SQLException {
+            String sql = "SELECT member_id FROM member WHERE " + condition + " ORDER BY member_id" + limitClause + " FOR UPDATE SKIP LOCKED";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                return ids(statement, values(null, args, limit));
+            }
+        }
+    }
+
+    private static final class FetchLimitedSkipLocked extends SkipLockedSupport {
+
+        @Override
+        List<Long> claim(Connection connection, int limit, String condition, Object[] args) throws SQLException {
+            String sql = "SELECT member_id FROM member WHERE " + condition + " FOR UPDATE SKIP LOCKED";
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                statement.setFetchSize(limit);
+                statement.setMaxRows(limit);
+                return ids(statement, values(null, args, null));
+            }
+        }
+    }
+
+    private static final class InProcessClaims extends SkipLockedSupport {
+
+        private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+
+        @Override
+        List<Long> claim(Connection connection, int limit, String condition, Object[] args) throws SQLException {
+            String candidates = "SELECT member_id FROM member WHERE member_id > ? AND (" + condition + ") ORDER BY member_id FETCH FIRST ? ROWS ONLY";
+            int window = limit * 4;
+
+            List<Long> claimed = new ArrayList<>(limit);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    claimed.forEach(inFlight::remove);
+                }
+            });
+
+            long after = Long.MIN_VALUE;
+            while (claimed.size() < limit) {
+                List<Long> ids;
+                try (PreparedStatement scan = connection.prepareStatement(candidates)) {
+                    ids = ids(scan, values(after, args, window));
+                }
+                if (ids.isEmpty()) break;
+
+                List<Long> reserved = new ArrayList<>();
+                for (Long id : ids) {
+                    if (reserved.size() + claimed.size() == limit) break;
+                    if (inFlight.add(id)) reserved.add(id);
+                }
+                if (!reserved.isEmpty()) {
+                    List<Long> locked;
+                    try {
+                        locked = lock(connection, reserved, condition, args);
+                    } catch (SQLException | RuntimeException e) {
+                        reserved.forEach(inFlight::remove);
+                        throw e;
+                    }
+                    reserved.stream().filter(id -> !locked.contains(id)).forEach(inFlight::remove);
+                    claimed.addAll(locked);
+                }
+                if (ids.size() < window) break;
+                after = ids.get(ids.size() - 1);
+            }
+            return claimed;
+        }
+
+        private static List<Long> lock(Connection connection, List<Long> ids, String condition, Object[] args) throws SQLException {
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            String sql = "SELECT member_id FROM member WHERE member_id IN (" + placeholders + ") AND (" + condition + ") ORDER BY member_id FOR UPDATE";
+            List<Object> values = new ArrayList<>(ids);
+            values.addAll(values(null, args, null));
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                return ids(statement, values);
+            }
+        }
+    }
+}
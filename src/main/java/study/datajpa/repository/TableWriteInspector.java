@@ -0,0 +1,28 @@
+package study.datajpa.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@RequiredArgsConstructor
+@Component
+public class TableWriteInspector implements StatementInspector {
+
+    private static final Pattern WRITE = Pattern.compile(
+            "^\\s*(?:insert\\s+into|update|delete\\s+from|merge\\s+into)\\s+([\\w.]+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final TotalCountCache totalCountCache;
+
+    @Override
+    public String inspect(String sql) {
+        Matcher matcher = WRITE.matcher(sql);
+        if (matcher.find()) {
+            totalCountCache.markWritten(matcher.group(1));
+        }
+        return sql;
+    }
+}
@@ -0,0 +1,163 @@
+package study.datajpa.repository;
+
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+@Slf4j
+@Component
+public class TotalCountCache {
+
+    private static final String ESTIMATE_QUERY =
+            "SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = ?";
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final CountStrategy strategy;
+    private final long ttlNanos;
+    private final int maxEntries;
+
+    public TotalCountCache(JdbcTemplate jdbcTemplate,
+                           @Value("${datajpa.count.strategy:CACHED}") CountStrategy strategy,
+                           @Value("${datajpa.count.ttl:30s}") Duration ttl,
+                           @Value("${datajpa.count.max-entries:1000}") int maxEntries) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.strategy = strategy;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+    }
+
+    public long count(String table, String query, List<?> params, LongSupplier exactCount) {
+        if (strategy == CountStrategy.EXACT) {
+            return exactCount.getAsLong();
+        }
+        return cached(new Key(normalize(table), query, params), exactCount);
+    }
+
+    public long countAll(String table, LongSupplier exactCount) {
+        if (strategy != CountStrategy.ESTIMATED) {
+            return count(table, "*", List.of(), exactCount);
+        }
+        return cached(new Key(normalize(table), "estimate", List.of()), () -> estimate(table, exactCount));
+    }
+
+    public void invalidate(String table) {
+        String normalized = normalize(table);
+        generation(normalized).incrementAndGet();
+        entries.keySet().removeIf(key -> key.table.equals(normalized));
+    }
+
+    void markWritten(String table) {
+        String normalized = normalize(table);
+        invalidate(normalized);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Set<String> written = writtenTables();
+        if (written == null) {
+            written = new HashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    @SuppressWarnings("unchecked")
+                    Set<String> tables = (Set<String>) TransactionSynchronizationManager.unbindResource(TotalCountCache.this);
+                    tables.forEach(TotalCountCache.this::invalidate);
+                }
+            });
+        }
+        written.add(normalized);
+    }
+
+    private long cached(Key key, LongSupplier counter) {
+        Set<String> written = writtenTables();
+        if (written != null && written.contains(key.table)) {
+            return counter.getAsLong();
+        }
+        // a count that started before an invalidation must neither be served nor stored
+        AtomicLong generation = generation(key.table);
+        long started = generation.get();
+        long now = System.nanoTime();
+        Entry entry = entries.get(key);
+        if (entry != null && entry.generation == started && now - entry.createdAt < ttlNanos) {
+            return entry.total;
+        }
+        long total = counter.getAsLong();
+        if (generation.get() != started) {
+            return total;
+        }
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key, new Entry(key.table, total, now, started));
+        return total;
+    }
+
+    private void evict(long now) {
+        entries.values().removeIf(e -> now - e.createdAt >= ttlNanos || e.generation != generation(e.table).get());
+        while (entries.size() >= maxEntries) {
+            entries.entrySet().stream()
+                    .min(Comparator.comparingLong(e -> e.getValue().createdAt))
+                    .ifPresent(oldest -> entries.remove(oldest.getKey(), oldest.getValue()));
+        }
+    }
+
+    private AtomicLong generation(String table) {
+        return generations.computeIfAbsent(table, t -> new AtomicLong());
+    }
+
+    private long estimate(String table, LongSupplier exactCount) {
+        try {
+            Long estimate = jdbcTemplate.queryForObject(ESTIMATE_QUERY, Long.class, table.toUpperCase(Locale.ROOT));
+            if (estimate != null) return estimate;
+        } catch (DataAccessException e) {
+            log.debug("Row estimate unavailable for {}, falling back to exact count", table, e);
+        }
+        return exactCount.getAsLong();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> writtenTables() {
+        return (Set<String>) TransactionSynchronizationManager.getResource(this);
+    }
+
+    private static String normalize(String table) {
+        return table.substring(table.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static final class Key {
+
+        private final String table;
+        private final String query;
+        private final List<?> params;
+    }
+
+    @RequiredArgsConstructor
+    private static final class Entry {
+
+        private final String table;
+        private final long total;
+        private final long createdAt;
+        private final long generation;
+    }
+}
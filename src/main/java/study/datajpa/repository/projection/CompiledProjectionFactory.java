@@ -0,0 +1,320 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.expression.BeanFactoryResolver;
+import org.springframework.context.expression.MapAccessor;
+import org.springframework.core.CollectionFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.projection.TargetAware;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParserContext;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projection factory that resolves every accessor of a projection interface once per source type.
+ * Getters become cached {@link MethodHandle}s, {@code @Value} expressions are parsed once and compiled
+ * to bytecode by SpEL, and the proxy class is constructed directly, so creating and reading a projection
+ * does no parsing or reflective lookup per row. Projections it cannot compile are delegated to
+ * {@link SpelAwareProxyProjectionFactory}.
+ */
+public class CompiledProjectionFactory extends SpelAwareProxyProjectionFactory {
+
+    private static final MethodType PROXY_CONSTRUCTOR = MethodType.methodType(void.class, InvocationHandler.class);
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, CompiledProjectionFactory.class.getClassLoader()));
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final Map<TemplateKey, Optional<Template>> templates = new ConcurrentHashMap<>();
+
+    private volatile StandardEvaluationContext evaluationContext = evaluationContext(null);
+    private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        evaluationContext = evaluationContext(beanFactory);
+        templates.clear();
+    }
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        super.setBeanClassLoader(classLoader);
+        this.classLoader = classLoader;
+        templates.clear();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProjection(Class<T> projectionType, Object source) {
+        Assert.notNull(projectionType, "Projection type must not be null!");
+        Assert.notNull(source, "Source must not be null!");
+
+        if (projectionType.isInstance(source)) {
+            return (T) source;
+        }
+        if (!projectionType.isInterface()) {
+            return super.createProjection(projectionType, source);
+        }
+
+        Optional<Template> template = templates.computeIfAbsent(new TemplateKey(projectionType, source.getClass()), this::compile);
+        return template.isPresent()
+                ? (T) template.get().newInstance(source)
+                : super.createProjection(projectionType, source);
+    }
+
+    private Optional<Template> compile(TemplateKey key) {
+        Map<Method, Accessor> accessors = new HashMap<>();
+        for (Method method : key.projectionType.getMethods()) {
+            if (Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Accessor accessor = accessor(method, key.sourceType);
+            if (accessor == null) {
+                return Optional.empty();
+            }
+            accessors.put(method, accessor);
+        }
+
+        Class<?>[] interfaces = {key.projectionType, TargetAware.class};
+        Object prototype = Proxy.newProxyInstance(classLoader, interfaces, (proxy, method, args) -> null);
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(prototype.getClass(), PROXY_CONSTRUCTOR);
+            return Optional.of(new Template(key.projectionType, constructor, accessors));
+        } catch (ReflectiveOperationException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Accessor accessor(Method method, Class<?> sourceType) {
+        if (method.isDefault()) {
+            return (proxy, source, args) -> InvocationHandler.invokeDefault(proxy, method, args);
+        }
+        Value value = method.getAnnotation(Value.class);
+        if (value != null) {
+            Expression expression = parser.parseExpression(value.value(), ParserContext.TEMPLATE_EXPRESSION);
+            return converting(method, (source, args) -> expression.getValue(evaluationContext, new Root(source, args)));
+        }
+        if (method.getParameterCount() != 0) {
+            return null;
+        }
+
+        PropertyDescriptor descriptor = BeanUtils.findPropertyForMethod(method);
+        if (descriptor == null) {
+            return null;
+        }
+        String property = descriptor.getName();
+        if (Map.class.isAssignableFrom(sourceType)) {
+            return converting(method, (source, args) -> ((Map<?, ?>) source).get(property));
+        }
+
+        PropertyDescriptor sourceProperty = BeanUtils.getPropertyDescriptor(sourceType, property);
+        if (sourceProperty == null || sourceProperty.getReadMethod() == null) {
+            return null;
+        }
+        try {
+            Method readMethod = ClassUtils.getMostSpecificMethod(sourceProperty.getReadMethod(), sourceType);
+            MethodHandle getter = MethodHandles.publicLookup().unreflect(readMethod)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+            return converting(method, (source, args) -> {
+                try {
+                    return getter.invokeExact(source);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private Accessor converting(Method method, ValueReader reader) {
+        Class<?> returnType = method.getReturnType();
+        if (isProjection(returnType)) {
+            return (proxy, source, args) -> {
+                Object value = reader.read(source, args);
+                return value == null ? null : createProjection(returnType, value);
+            };
+        }
+
+        Class<?> elementType = ResolvableType.forMethodReturnType(method).asCollection().resolveGeneric(0);
+        if (Collection.class.isAssignableFrom(returnType) && elementType != null && isProjection(elementType)) {
+            return (proxy, source, args) -> {
+                Object value = reader.read(source, args);
+                if (value == null) {
+                    return null;
+                }
+                Collection<?> sources = (Collection<?>) value;
+                Collection<Object> result = CollectionFactory.createCollection(returnType, elementType, sources.size());
+                for (Object element : sources) {
+                    result.add(element == null ? null : createProjection(elementType, element));
+                }
+                return result;
+            };
+        }
+
+        Class<?> boxed = ClassUtils.resolvePrimitiveIfNecessary(returnType);
+        return (proxy, source, args) -> {
+            Object value = reader.read(source, args);
+            return value == null || boxed.isInstance(value) ? value : conversionService.convert(value, boxed);
+        };
+    }
+
+    private static boolean isProjection(Class<?> type) {
+        return type.isInterface()
+                && !type.getName().startsWith("java.")
+                && !Collection.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type);
+    }
+
+    private static StandardEvaluationContext evaluationContext(BeanFactory beanFactory) {
+        StandardEvaluationContext context = new StandardEvaluationContext();
+        context.addPropertyAccessor(new MapAccessor());
+        if (beanFactory != null) {
+            context.setBeanResolver(new BeanFactoryResolver(beanFactory));
+        }
+        return context;
+    }
+
+    @FunctionalInterface
+    private interface ValueReader {
+
+        Object read(Object source, Object[] args);
+    }
+
+    @FunctionalInterface
+    private interface Accessor {
+
+        Object invoke(Object proxy, Object source, Object[] args) throws Throwable;
+    }
+
+    public static class Root {
+
+        private static final Object[] NO_ARGS = new Object[0];
+
+        private final Object target;
+        private final Object[] args;
+
+        Root(Object target, Object[] args) {
+            this.target = target;
+            this.args = args == null ? NO_ARGS : args;
+        }
+
+        public Object getTarget() {
+            return target;
+        }
+
+        public Object[] getArgs() {
+            return args;
+        }
+    }
+
+    private static class TemplateKey {
+
+        private final Class<?> projectionType;
+        private final Class<?> sourceType;
+
+        TemplateKey(Class<?> projectionType, Class<?> sourceType) {
+            this.projectionType = projectionType;
+            this.sourceType = sourceType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof TemplateKey)) return false;
+            TemplateKey that = (TemplateKey) o;
+            return projectionType == that.projectionType && sourceType == that.sourceType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * projectionType.hashCode() + sourceType.hashCode();
+        }
+    }
+
+    private static class Template {
+
+        private final Class<?> projectionType;
+        private final MethodHandle constructor;
+        private final Map<Method, Accessor> accessors;
+
+        Template(Class<?> projectionType, MethodHandle constructor, Map<Method, Accessor> accessors) {
+            this.projectionType = projectionType;
+            this.constructor = constructor.asType(MethodType.methodType(Object.class, InvocationHandler.class));
+            this.accessors = accessors;
+        }
+
+        Object newInstance(Object source) {
+            try {
+                return constructor.invokeExact((InvocationHandler) new Handler(this, source));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private static class Handler implements InvocationHandler {
+
+        private final Template template;
+        private final Object source;
+
+        Handler(Template template, Object source) {
+            this.template = template;
+            this.source = source;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            Accessor accessor = template.accessors.get(method);
+            if (accessor != null) {
+                return accessor.invoke(proxy, source, args);
+            }
+            switch (method.getName()) {
+                case "getTarget":
+                    return source;
+                case "getTargetClass":
+                case "getDecoratedClass":
+                    return source.getClass();
+                case "equals":
+                    return args[0] != null && Proxy.isProxyClass(args[0].getClass())
+                            && Proxy.getInvocationHandler(args[0]) instanceof Handler
+                            && ((Handler) Proxy.getInvocationHandler(args[0])).source.equals(source);
+                case "hashCode":
+                    return source.hashCode();
+                case "toString":
+                    return template.projectionType.getSimpleName() + "(" + source + ")";
+                default:
+                    throw new UnsupportedOperationException(method.toString());
+            }
+        }
+    }
+}
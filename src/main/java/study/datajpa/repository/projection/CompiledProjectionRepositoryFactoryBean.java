@@ -0,0 +1,61 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import study.datajpa.repository.InClauseChunkingPostProcessor;
+import study.datajpa.repository.ReadOnlyEntitiesPostProcessor;
+import study.datajpa.sql.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+
+public class CompiledProjectionRepositoryFactoryBean<T extends Repository<S, ID>, S, ID> extends JpaRepositoryFactoryBean<T, S, ID>
+        implements EnvironmentAware {
+
+    private Environment environment;
+    private ObjectProvider<SqlStatementCounter> sqlStatementCounter;
+
+    public CompiledProjectionRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) {
+        super.setBeanFactory(beanFactory);
+        this.sqlStatementCounter = beanFactory.getBeanProvider(SqlStatementCounter.class);
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        JpaRepositoryFactory factory = new JpaRepositoryFactory(entityManager) {
+
+            @Override
+            protected ProjectionFactory getProjectionFactory(ClassLoader classLoader, BeanFactory beanFactory) {
+                CompiledProjectionFactory factory = new CompiledProjectionFactory();
+                factory.setBeanClassLoader(classLoader);
+                factory.setBeanFactory(beanFactory);
+                return factory;
+            }
+        };
+        factory.addRepositoryProxyPostProcessor(new ReadOnlyEntitiesPostProcessor(entityManager));
+        factory.addRepositoryProxyPostProcessor(new InClauseChunkingPostProcessor(entityManager.getEntityManagerFactory(),
+                environment.getProperty("datajpa.in-clause.chunk-size", Integer.class, 1000),
+                environment.getProperty("datajpa.in-clause.parallelism", Integer.class, 4),
+                task -> {
+                    SqlStatementCounter counter = sqlStatementCounter.getIfAvailable();
+                    return counter == null ? task : counter.propagate(task);
+                }));
+        return factory;
+    }
+}
@@ -0,0 +1,186 @@
+package study.datajpa.repository.projection;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mapping.Parameter;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.model.PreferredConstructorDiscoverer;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Select list for a closed projection: only the projected columns of the root entity, plus a left join
+ * and the identifier of every to-one association a nested projection reads. Rows come back as scalars
+ * and are turned into Map-backed projections (or DTOs via their constructor), so nothing is hydrated
+ * into the persistence context.
+ */
+public class PrunedProjection<T> {
+
+    private final Class<T> type;
+    private final Node root;
+    private final String select;
+    private final String joins;
+
+    private PrunedProjection(Class<T> type, Node root, String select, String joins) {
+        this.type = type;
+        this.root = root;
+        this.select = select;
+        this.joins = joins;
+    }
+
+    /**
+     * Empty when the projection is open, reads a collection or returns an entity, in which case the
+     * entity has to be selected anyway.
+     */
+    public static <T> Optional<PrunedProjection<T>> of(ProjectionFactory factory, Metamodel metamodel,
+                                                       Class<?> entityType, String alias, Class<T> type) {
+        Builder builder = new Builder(factory, metamodel);
+        EntityType<?> entity = metamodel.entity(entityType);
+        Node root = type.isInterface() ? builder.projection(entity, alias, type) : builder.dto(entity, alias, type);
+        if (root == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new PrunedProjection<>(type, root, String.join(", ", builder.columns), builder.joins.toString()));
+    }
+
+    public String getSelect() {
+        return select;
+    }
+
+    public String getJoins() {
+        return joins;
+    }
+
+    public List<T> map(List<?> rows, ProjectionFactory factory) {
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            Object[] values = row instanceof Object[] ? (Object[]) row : new Object[]{row};
+            Object source = root.materialize(values);
+            result.add(type.isInstance(source) ? type.cast(source) : factory.createProjection(type, source));
+        }
+        return result;
+    }
+
+    private static class Builder {
+
+        private final ProjectionFactory factory;
+        private final Metamodel metamodel;
+        private final List<String> columns = new ArrayList<>();
+        private final StringBuilder joins = new StringBuilder();
+
+        Builder(ProjectionFactory factory, Metamodel metamodel) {
+            this.factory = factory;
+            this.metamodel = metamodel;
+        }
+
+        Node projection(ManagedType<?> managed, String path, Class<?> type) {
+            ProjectionInformation information = factory.getProjectionInformation(type);
+            if (!information.isClosed()) {
+                return null;
+            }
+
+            Node node = new Node(null);
+            for (PropertyDescriptor descriptor : information.getInputProperties()) {
+                Attribute<?, ?> attribute = attribute(managed, descriptor.getName());
+                if (attribute == null || attribute.isCollection()) {
+                    return null;
+                }
+
+                Class<?> propertyType = descriptor.getPropertyType();
+                if (!attribute.isAssociation()) {
+                    if (propertyType.isInterface() && !propertyType.isAssignableFrom(attribute.getJavaType())) {
+                        return null;
+                    }
+                    node.leaves.put(descriptor.getName(), column(path + "." + attribute.getName()));
+                    continue;
+                }
+
+                if (!propertyType.isInterface() || propertyType.isAssignableFrom(attribute.getJavaType())) {
+                    return null;
+                }
+                EntityType<?> target = metamodel.entity(attribute.getJavaType());
+                String join = path + "_" + attribute.getName();
+                joins.append(" LEFT JOIN ").append(path).append('.').append(attribute.getName()).append(' ').append(join);
+                int presence = column(join + "." + target.getId(target.getIdType().getJavaType()).getName());
+                Node child = projection(target, join, propertyType);
+                if (child == null) {
+                    return null;
+                }
+                child.presence = presence;
+                node.children.put(descriptor.getName(), child);
+            }
+            return node;
+        }
+
+        Node dto(ManagedType<?> managed, String path, Class<?> type) {
+            PreferredConstructor<?, ?> constructor = PreferredConstructorDiscoverer.discover(type);
+            if (constructor == null || constructor.isNoArgConstructor()) {
+                return null;
+            }
+
+            Node node = new Node(constructor.getConstructor());
+            for (Parameter<?, ?> parameter : constructor.getParameters()) {
+                Attribute<?, ?> attribute = parameter.getName() == null ? null : attribute(managed, parameter.getName());
+                if (attribute == null || attribute.isAssociation() || attribute.isCollection()) {
+                    return null;
+                }
+                node.leaves.put(parameter.getName(), column(path + "." + attribute.getName()));
+            }
+            return node;
+        }
+
+        private int column(String expression) {
+            columns.add(expression);
+            return columns.size() - 1;
+        }
+
+        private static Attribute<?, ?> attribute(ManagedType<?> managed, String name) {
+            try {
+                return managed.getAttribute(name);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+    }
+
+    private static class Node {
+
+        private final Constructor<?> constructor;
+        private final Map<String, Integer> leaves = new LinkedHashMap<>();
+        private final Map<String, Node> children = new LinkedHashMap<>();
+        private int presence = -1;
+
+        Node(Constructor<?> constructor) {
+            this.constructor = constructor;
+        }
+
+        Object materialize(Object[] row) {
+            if (constructor != null) {
+                Object[] args = new Object[leaves.size()];
+                int i = 0;
+                for (int column : leaves.values()) {
+                    args[i++] = row[column];
+                }
+                return BeanUtils.instantiateClass(constructor, args);
+            }
+
+            Map<String, Object> values = new HashMap<>(leaves.size() + children.size(), 1f);
+            leaves.forEach((property, column) -> values.put(property, row[column]));
+            children.forEach((property, child) ->
+                    values.put(property, row[child.presence] == null ? null : child.materialize(row)));
+            return values;
+        }
+    }
+}
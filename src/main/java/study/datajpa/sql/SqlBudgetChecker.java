@@ -0,0 +1,41 @@
+package study.datajpa.sql;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class SqlBudgetChecker {
+
+    private final long budget;
+    private final int repeatThreshold;
+
+    public SqlBudgetChecker(@Value("${datajpa.sql.budget:30}") long budget,
+                            @Value("${datajpa.sql.repeat-threshold:5}") int repeatThreshold) {
+        this.budget = budget;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    public boolean check(String scope, SqlStatementCounter.Counts counts) {
+        boolean ok = true;
+        if (counts.getExecutions() > budget) {
+            log.warn("SQL budget exceeded in {}: {} statements (budget {})", scope, counts.getExecutions(), budget);
+            ok = false;
+        }
+        for (Map.Entry<String, Long> entry : counts.getRepeatedStatements(repeatThreshold).entrySet()) {
+            if (isSelect(entry.getKey())) {
+                log.warn("Possible N+1 in {}: {} executions of [{}]", scope, entry.getValue(), entry.getKey());
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    private static boolean isSelect(String sql) {
+        return sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select");
+    }
+}
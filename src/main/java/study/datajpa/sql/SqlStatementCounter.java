@@ -0,0 +1,136 @@
+package study.datajpa.sql;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@Component
+public class SqlStatementCounter extends SimpleJdbcEventListener {
+
+    private static final int MAX_DISTINCT_STATEMENTS = 1000;
+    private static final String OTHER_STATEMENTS = "<other>";
+
+    private final ThreadLocal<Counts> counts = ThreadLocal.withInitial(Counts::new);
+    private final SqlBudgetChecker sqlBudgetChecker;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        counts.get().executed(sql);
+        Counts transactionCounts = transactionCounts();
+        if (transactionCounts != null) {
+            transactionCounts.executed(sql);
+        }
+    }
+
+    @Override
+    public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+        counts.get().batches++;
+        super.onAfterExecuteBatch(statementInformation, timeElapsedNanos, updateCounts, e);
+    }
+
+    @Override
+    public void onAfterAnyAddBatch(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        counts.get().batchedStatements++;
+    }
+
+    public void reset() {
+        counts.remove();
+    }
+
+    public Counts snapshot() {
+        return counts.get().copy();
+    }
+
+    /**
+     * Wraps work handed to another thread so that its statements are added to the counts of the thread
+     * calling this method. The caller must wait for the task before it reads or resets its counts.
+     */
+    public Runnable propagate(Runnable task) {
+        Counts caller = counts.get();
+        return () -> {
+            counts.remove();
+            try {
+                task.run();
+            } finally {
+                caller.add(counts.get());
+                counts.remove();
+            }
+        };
+    }
+
+    private Counts transactionCounts() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        Counts transactionCounts = (Counts) TransactionSynchronizationManager.getResource(this);
+        if (transactionCounts == null) {
+            transactionCounts = new Counts();
+            String name = TransactionSynchronizationManager.getCurrentTransactionName();
+            TransactionSynchronizationManager.bindResource(this, transactionCounts);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    Counts completed = (Counts) TransactionSynchronizationManager.unbindResource(SqlStatementCounter.this);
+                    sqlBudgetChecker.check("transaction " + name, completed);
+                }
+            });
+        }
+        return transactionCounts;
+    }
+
+    @Getter
+    public static class Counts {
+
+        private long executions;
+        private long batches;
+        private long batchedStatements;
+        private final Map<String, Long> statements = new LinkedHashMap<>();
+
+        private void executed(String sql) {
+            executions++;
+            String key = statements.size() < MAX_DISTINCT_STATEMENTS || statements.containsKey(sql) ? sql : OTHER_STATEMENTS;
+            statements.merge(key, 1L, Long::sum);
+        }
+
+        public Map<String, Long> getStatements() {
+            return Collections.unmodifiableMap(statements);
+        }
+
+        public Map<String, Long> getRepeatedStatements(int threshold) {
+            return statements.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= threshold && !OTHER_STATEMENTS.equals(entry.getKey()))
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+        }
+
+        // the tasks of one caller may finish at the same time
+        private synchronized void add(Counts other) {
+            executions += other.executions;
+            batches += other.batches;
+            batchedStatements += other.batchedStatements;
+            other.statements.forEach((sql, count) -> statements.merge(
+                    statements.size() < MAX_DISTINCT_STATEMENTS || statements.containsKey(sql) ? sql : OTHER_STATEMENTS,
+                    count, Long::sum));
+        }
+
+        private Counts copy() {
+            Counts copy = new Counts();
+            copy.executions = executions;
+            copy.batches = batches;
+            copy.batchedStatements = batchedStatements;
+            copy.statements.putAll(statements);
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package study.datajpa.sql;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Component
+public class SqlStatistics extends SimpleJdbcEventListener {
+
+    private static final Logger slowQueryLog = LoggerFactory.getLogger("datajpa.slow-query");
+    private static final long[] BUCKET_BOUNDS_MILLIS = {1, 5, 10, 50, 100, 500, 1000};
+    private static final int MAX_CACHED_SQL = 10_000;
+
+    private final Map<String, Stats> byFingerprint = new ConcurrentHashMap<>();
+    private final Map<String, Stats> bySql = new ConcurrentHashMap<>();
+    private final long slowThresholdNanos;
+
+    public SqlStatistics(@Value("${datajpa.sql.slow-threshold:200ms}") Duration slowThreshold) {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        if (sql == null) return;
+        statsFor(sql).record(timeElapsedNanos);
+        if (timeElapsedNanos >= slowThresholdNanos) {
+            slowQueryLog.warn("{} ms | {}", TimeUnit.NANOSECONDS.toMillis(timeElapsedNanos), statementInformation.getSqlWithValues());
+        }
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos, boolean hasNext, SQLException e) {
+        String sql = resultSetInformation.getSql();
+        if (hasNext && sql != null) {
+            statsFor(sql).rows.increment();
+        }
+    }
+
+    public List<Map<String, Object>> snapshot() {
+        return byFingerprint.values().stream()
+                .sorted(Comparator.comparingLong((Stats stats) -> stats.totalNanos.sum()).reversed())
+                .map(Stats::toMap)
+                .collect(Collectors.toList());
+    }
+
+    public void reset() {
+        bySql.clear();
+        byFingerprint.clear();
+    }
+
+    private Stats statsFor(String sql) {
+        Stats stats = bySql.get(sql);
+        if (stats != null) return stats;
+        stats = byFingerprint.computeIfAbsent(SqlFingerprint.of(sql), Stats::new);
+        if (bySql.size() < MAX_CACHED_SQL) {
+            bySql.put(sql, stats);
+        }
+        return stats;
+    }
+
+    private static final class Stats {
+
+        private final String fingerprint;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+
+        private Stats(String fingerprint) {
+            this.fingerprint = fingerprint;
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        private void record(long nanos) {
+            calls.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            int bucket = 0;
+            while (bucket < BUCKET_BOUNDS_MILLIS.length && millis >= BUCKET_BOUNDS_MILLIS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+        }
+
+        private Map<String, Object> toMap() {
+            Map<String, Object> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < buckets.length; i++) {
+                String label = i < BUCKET_BOUNDS_MILLIS.length ? "<" + BUCKET_BOUNDS_MILLIS[i] + "ms" : ">=" + BUCKET_BOUNDS_MILLIS[i - 1] + "ms";
+                histogram.put(label, buckets[i].sum());
+            }
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("fingerprint", fingerprint);
+            result.put("calls", calls.sum());
+            result.put("totalMillis", TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()));
+            result.put("maxMillis", TimeUnit.NANOSECONDS.toMillis(maxNanos.get()));
+            result.put("rows", rows.sum());
+            result.put("histogram", histogram);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package study.datajpa.work;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * Fixed set of workers that each claim a batch of rows in their own transaction, process it and commit,
+ * which releases the row locks. Claims skip rows other workers hold, so workers never wait on each other.
+ * {@link #drain()} runs until a claim comes back empty; {@link #start()} keeps polling until {@link #close()}.
+ */
+@Slf4j
+public class ClaimingWorkers<T> implements AutoCloseable {
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private final TransactionTemplate transactionTemplate;
+    private final int workers;
+    private final int batchSize;
+    private final Duration idleBackoff;
+    private final IntFunction<List<T>> claim;
+    private final Consumer<List<T>> process;
+    private final ExecutorService executor;
+    private final AtomicLong processed = new AtomicLong();
+    private volatile boolean running;
+
+    public ClaimingWorkers(PlatformTransactionManager transactionManager, int workers, int batchSize, Duration idleBackoff,
+                           IntFunction<List<T>> claim, Consumer<List<T>> process) {
+        if (workers < 1) throw new IllegalArgumentException("workers must be positive: " + workers);
+        if (batchSize < 1) throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.idleBackoff = idleBackoff;
+        this.claim = claim;
+        this.process = process;
+
+        int pool = POOL_SEQUENCE.incrementAndGet();
+        AtomicInteger thread = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread worker = new Thread(runnable, "claim-worker-" + pool + "-" + thread.incrementAndGet());
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    public long drain() throws InterruptedException {
+        long before = processed.get();
+        List<Future<?>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            futures.add(executor.submit(() -> {
+                while (runBatch() > 0) {
+                    if (Thread.currentThread().isInterrupted()) return;
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                futures.forEach(f -> f.cancel(true));
+                throw new IllegalStateException("Worker failed", e.getCause());
+            }
+        }
+        return processed.get() - before;
+    }
+
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            executor.execute(() -> {
+                while (running && !Thread.currentThread().isInterrupted()) {
+                    try {
+                        if (runBatch() == 0) {
+                            TimeUnit.MILLISECONDS.sleep(idleBackoff.toMillis());
+                        }
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (RuntimeException e) {
+                        log.warn("Claimed batch failed and was rolled back", e);
+                    }
+                }
+            });
+        }
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        executor.shutdownNow();
+    }
+
+    private int runBatch() {
+        Integer size = transactionTemplate.execute(status -> {
+            List<T> batch = claim.apply(batchSize);
+            if (!batch.isEmpty()) {
+                process.accept(batch);
+            }
+            return batch.size();
+        });
+        int claimed = size == null ? 0 : size;
+        processed.addAndGet(claimed);
+        return claimed;
+    }
+}
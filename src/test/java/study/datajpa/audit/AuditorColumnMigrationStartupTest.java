@@ -0,0 +1,38 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "datajpa.audit.binary-auditors=true",
+        "datajpa.audit.migrate-binary-auditors=true",
+        "spring.datasource.url=jdbc:h2:mem:auditor-migration;DB_CLOSE_DELAY=-1"
+})
+class AuditorColumnMigrationStartupTest {
+
+    @Autowired
+    ConfigurableListableBeanFactory beanFactory;
+
+    @Test
+    void runsBeforeEntityManagerFactory() {
+        assertThat(beanFactory.getBeanDefinition("entityManagerFactory").getDependsOn()).contains("auditorColumnMigration");
+    }
+
+    @Test
+    void requiresBinaryAuditorMapping() {
+        new ApplicationContextRunner()
+                .withBean(DataSource.class, () -> new DriverManagerDataSource("jdbc:h2:mem:auditor-migration-flags"))
+                .withUserConfiguration(AuditorColumnMigration.class)
+                .withPropertyValues("datajpa.audit.migrate-binary-auditors=true", "datajpa.audit.binary-auditors=false")
+                .run(context -> assertThat(context).getFailure()
+                        .hasRootCauseMessage("datajpa.audit.migrate-binary-auditors=true requires datajpa.audit.binary-auditors=true"));
+    }
+}
@@ -0,0 +1,94 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class AuditorColumnMigrationTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    DataSource dataSource;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS legacy_audit");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS interrupted_audit");
+    }
+
+    @Test
+    void migrateStringAuditors() {
+        //g
+        jdbcTemplate.execute("CREATE TABLE legacy_audit (id BIGINT PRIMARY KEY, created_by VARCHAR(255), last_modified_by VARCHAR(255))");
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 0; i < 1500; i++) {
+            rows.add(new Object[]{i, UUID.randomUUID().toString(), i == 0 ? "system" : UUID.randomUUID().toString()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO legacy_audit VALUES (?, ?, ?)", rows);
+        AuditorColumnMigration migration = new AuditorColumnMigration(dataSource);
+        List<String> columns = List.of("created_by", "last_modified_by");
+        long before = migration.storedBytes("legacy_audit", columns);
+
+        //w
+        migration.migrate("legacy_audit", "id", "created_by", "last_modified_by");
+        migration.migrate("legacy_audit", "id", "created_by", "last_modified_by");
+
+        //t
+        long after = migration.storedBytes("legacy_audit", columns);
+        assertThat(after).isLessThan(before / 2);
+        assertThat(before).isEqualTo(1500 * 72 - 30);
+        assertThat(after).isEqualTo(1500 * 32 - 10);
+
+        BinaryAuditorConverter converter = new BinaryAuditorConverter();
+        byte[] createdBy = jdbcTemplate.queryForObject("SELECT created_by FROM legacy_audit WHERE id = 1", byte[].class);
+        byte[] system = jdbcTemplate.queryForObject("SELECT last_modified_by FROM legacy_audit WHERE id = 0", byte[].class);
+        assertThat(converter.convertToEntityAttribute(createdBy)).isEqualTo(rows.get(1)[1]);
+        assertThat(converter.convertToEntityAttribute(system)).isEqualTo("system");
+    }
+
+    @Test
+    void resumeInterruptedMigration() {
+        //g
+        jdbcTemplate.execute("CREATE TABLE interrupted_audit (id BIGINT PRIMARY KEY, created_by VARCHAR(255), last_modified_by VARCHAR(255))");
+        List<Object[]> rows = new ArrayList<>();
+        for (long i = 0; i < 1500; i++) {
+            rows.add(new Object[]{i, UUID.randomUUID().toString(), UUID.randomUUID().toString()});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO interrupted_audit VALUES (?, ?, ?)", rows);
+        BinaryAuditorConverter converter = new BinaryAuditorConverter();
+
+        // created_by: copy stopped after the first rows, and row 1 was updated after it had been copied
+        jdbcTemplate.execute("ALTER TABLE interrupted_audit ADD COLUMN created_by_bin VARBINARY(64)");
+        jdbcTemplate.update("UPDATE interrupted_audit SET created_by_bin = ? WHERE id = 0", (Object) converter.convertToDatabaseColumn((String) rows.get(0)[1]));
+        jdbcTemplate.update("UPDATE interrupted_audit SET created_by_bin = ? WHERE id = 1", (Object) converter.convertToDatabaseColumn(UUID.randomUUID().toString()));
+        // last_modified_by: stopped between drop and rename
+        jdbcTemplate.execute("ALTER TABLE interrupted_audit ADD COLUMN last_modified_by_bin VARBINARY(64)");
+        jdbcTemplate.batchUpdate("UPDATE interrupted_audit SET last_modified_by_bin = ? WHERE id = ?", rows.stream()
+                .map(row -> new Object[]{converter.convertToDatabaseColumn((String) row[2]), row[0]})
+                .collect(Collectors.toList()));
+        jdbcTemplate.execute("ALTER TABLE interrupted_audit DROP COLUMN last_modified_by");
+
+        //w
+        new AuditorColumnMigration(dataSource).migrate("interrupted_audit", "id", "created_by", "last_modified_by");
+
+        //t
+        for (int id : new int[]{0, 1, 1499}) {
+            byte[] createdBy = jdbcTemplate.queryForObject("SELECT created_by FROM interrupted_audit WHERE id = ?", byte[].class, id);
+            byte[] lastModifiedBy = jdbcTemplate.queryForObject("SELECT last_modified_by FROM interrupted_audit WHERE id = ?", byte[].class, id);
+            assertThat(converter.convertToEntityAttribute(createdBy)).isEqualTo(rows.get(id)[1]);
+            assertThat(converter.convertToEntityAttribute(lastModifiedBy)).isEqualTo(rows.get(id)[2]);
+        }
+    }
+}
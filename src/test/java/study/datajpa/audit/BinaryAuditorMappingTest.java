@@ -0,0 +1,36 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "datajpa.audit.binary-auditors=true",
+        "spring.datasource.url=jdbc:h2:mem:binary-auditors;DB_CLOSE_DELAY=-1"
+})
+class BinaryAuditorMappingTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    void auditorsStoredAsBinary() {
+        //g
+        Member member = memberRepository.save(new Member("binaryAuditor", 10));
+
+        //w
+        byte[] createdBy = jdbcTemplate.queryForObject("SELECT created_by FROM member WHERE member_id = ?", byte[].class, member.getId());
+        Member found = memberRepository.findById(member.getId()).orElseThrow();
+
+        //t
+        assertThat(createdBy).hasSize(16);
+        assertThat(found.getCreatedBy()).isEqualTo(member.getCreatedBy()).hasSize(36);
+    }
+}
@@ -0,0 +1,25 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoarseClockTest {
+
+    @Test
+    void ticks() throws InterruptedException {
+        //g
+        CoarseClock clock = new CoarseClock(Duration.ofMillis(5));
+
+        //w
+        LocalDateTime before = clock.now();
+        Thread.sleep(50);
+
+        //t
+        assertThat(clock.now()).isAfter(before);
+        clock.stop();
+    }
+}
@@ -0,0 +1,44 @@
+package study.datajpa.audit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ScopedAuditorAwareTest {
+
+    private final AtomicInteger resolved = new AtomicInteger();
+    private final ScopedAuditorAware auditorAware = new ScopedAuditorAware(() -> "auditor" + resolved.incrementAndGet());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clear();
+        }
+    }
+
+    @Test
+    void resolvesOncePerTransaction() {
+        //g
+        TransactionSynchronizationManager.initSynchronization();
+
+        //w
+        String first = auditorAware.getCurrentAuditor().orElseThrow();
+        String second = auditorAware.getCurrentAuditor().orElseThrow();
+        TransactionSynchronizationUtils.invokeAfterCompletion(
+                TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        String next = auditorAware.getCurrentAuditor().orElseThrow();
+
+        //t
+        assertThat(first).isEqualTo(second).isEqualTo("auditor1");
+        assertThat(next).isEqualTo("auditor2");
+        assertThat(resolved).hasValue(2);
+    }
+}
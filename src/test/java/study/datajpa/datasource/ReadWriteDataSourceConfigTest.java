@@ -0,0 +1,88 @@
+package study.datajpa.datasource;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.sql.SqlStatementCounter;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "datajpa.datasource.replicas[0].name=replica",
+        "datajpa.datasource.replicas[0].url=" + ReadWriteDataSourceConfigTest.REPLICA_URL,
+        "datajpa.datasource.replicas[0].username=sa"
+})
+class ReadWriteDataSourceConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    Map<String, DataSource> dataSources;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        // the replica starts empty; give it the primary's schema and one row of its own
+        if (replica.queryForObject("SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = 'MEMBER'", Integer.class) == 0) {
+            jdbcTemplate.queryForList("SCRIPT NODATA TABLE MEMBER, TEAM", String.class).stream()
+                    .filter(statement -> !statement.startsWith("--"))
+                    .forEach(replica::execute);
+        }
+        replica.update("INSERT INTO member (member_id, username, age, version) VALUES (-1, 'replicaOnly', 4711, 0)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.update("DELETE FROM member");
+        jdbcTemplate.update("DELETE FROM member WHERE age = 4711");
+    }
+
+    @Test
+    void onlyRoutingSourceIsDecorated() {
+        assertThat(dataSources).containsOnlyKeys("readWriteRoutingDataSource", "readWriteDataSource");
+        assertThat(dataSources.get("readWriteRoutingDataSource")).isInstanceOf(DecoratedDataSource.class);
+        assertThat(dataSources.get("readWriteDataSource")).isNotInstanceOf(DecoratedDataSource.class);
+    }
+
+    @Test
+    void readOnlyRepositoryMethodsReadFromReplica() {
+        //w
+        sqlStatementCounter.reset();
+        Member found = memberRepository.findById(-1L).orElseThrow();
+
+        //t
+        assertThat(found.getUsername()).isEqualTo("replicaOnly");
+        assertThat(sqlStatementCounter.snapshot().getExecutions()).isEqualTo(1);
+        assertThat(memberRepository.findByAge(4711, PageRequest.of(0, 10)).getContent())
+                .extracting(Member::getUsername).containsExactly("replicaOnly");
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        //w
+        Member saved = memberRepository.save(new Member("primaryOnly", 4711));
+
+        //t
+        assertThat(jdbcTemplate.queryForObject("SELECT username FROM member WHERE member_id = ?", String.class, saved.getId()))
+                .isEqualTo("primaryOnly");
+        assertThat(replica.queryForObject("SELECT COUNT(*) FROM member WHERE username = 'primaryOnly'", Integer.class)).isZero();
+    }
+}
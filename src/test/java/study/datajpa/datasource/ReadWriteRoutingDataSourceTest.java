@@ -0,0 +1,142 @@
+package study.datajpa.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private final List<ReadWriteRoutingDataSource> routings = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (ReadWriteRoutingDataSource routing : routings) {
+            routing.close();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsRotateOverReplicas() {
+        //g
+        Fixture fixture = new Fixture(ReplicaBalance.ROUND_ROBIN, null);
+
+        //w
+        List<String> reads = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            reads.add(fixture.read());
+        }
+
+        //t
+        assertThat(reads).containsExactly("replica1", "replica2", "replica1", "replica2");
+    }
+
+    @Test
+    void writesGoToPrimary() {
+        //g
+        Fixture fixture = new Fixture(ReplicaBalance.ROUND_ROBIN, null);
+
+        //w
+        String written = fixture.write.execute(status -> {
+            fixture.jdbc.update("update node set writes = writes + 1");
+            return fixture.jdbc.queryForObject("select name from node", String.class);
+        });
+
+        //t
+        assertThat(written).isEqualTo("primary");
+        assertThat(fixture.jdbc.queryForObject("select writes from node", Integer.class)).isEqualTo(1);
+    }
+
+    @Test
+    void leastLoadedSkipsBusyReplica() throws Exception {
+        //g
+        Fixture fixture = new Fixture(ReplicaBalance.LEAST_LOADED, null);
+        String busy = fixture.read();
+
+        //w
+        String whileBusy = fixture.readOnly.execute(status -> {
+            try (Connection held = fixture.routing.getConnection()) {
+                return fixture.read();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        //t
+        assertThat(busy).isEqualTo("replica1");
+        assertThat(whileBusy).isEqualTo("replica2");
+    }
+
+    @Test
+    void lagGuardTakesReplicaOutOfRotation() {
+        //g
+        Fixture fixture = new Fixture(ReplicaBalance.ROUND_ROBIN, "select millis from replica_lag");
+        new JdbcTemplate(fixture.replicas.get("replica1")).update("update replica_lag set millis = 60000");
+
+        //w
+        fixture.routing.checkLag();
+        List<String> reads = List.of(fixture.read(), fixture.read(), fixture.read());
+
+        //t
+        assertThat(reads).containsOnly("replica2");
+
+        //w
+        new JdbcTemplate(fixture.replicas.get("replica2")).update("drop table replica_lag");
+        fixture.routing.checkLag();
+
+        //t
+        assertThat(fixture.read()).isEqualTo("primary");
+    }
+
+    private class Fixture {
+
+        final Map<String, DataSource> replicas = new LinkedHashMap<>();
+        final ReadWriteRoutingDataSource routing;
+        final JdbcTemplate jdbc;
+        final TransactionTemplate write;
+        final TransactionTemplate readOnly;
+
+        Fixture(ReplicaBalance balance, String lagQuery) {
+            DataSource primary = database("primary");
+            replicas.put("replica1", database("replica1"));
+            replicas.put("replica2", database("replica2"));
+            routing = new ReadWriteRoutingDataSource(primary, replicas, balance, lagQuery, Duration.ofSeconds(1));
+            routings.add(routing);
+
+            DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+            DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+            jdbc = new JdbcTemplate(dataSource);
+            write = new TransactionTemplate(transactionManager);
+            readOnly = new TransactionTemplate(transactionManager);
+            readOnly.setReadOnly(true);
+        }
+
+        String read() {
+            return readOnly.execute(status -> jdbc.queryForObject("select name from node", String.class));
+        }
+
+        private DataSource database(String name) {
+            String url = "jdbc:h2:mem:" + name + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+            DataSource dataSource = new DriverManagerDataSource(url, "sa", "");
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            jdbc.execute("create table node (name varchar(20), writes int)");
+            jdbc.update("insert into node values (?, 0)", name);
+            jdbc.execute("create table replica_lag (millis bigint)");
+            jdbc.update("insert into replica_lag values (0)");
+            return dataSource;
+        }
+    }
+}
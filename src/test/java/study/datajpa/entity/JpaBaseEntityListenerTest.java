@@ -0,0 +1,27 @@
+package study.datajpa.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JpaBaseEntityListenerTest {
+
+    @Test
+    void stampsFromConfiguredProvider() {
+        //g
+        LocalDateTime created = LocalDateTime.of(2024, 1, 1, 0, 0);
+        LocalDateTime updated = created.plusMinutes(1);
+        JpaBaseEntity entity = new JpaBaseEntity();
+
+        //w
+        new JpaBaseEntityListener(() -> Optional.of(created)).prePersist(entity);
+        new JpaBaseEntityListener(() -> Optional.of(updated)).preUpdate(entity);
+
+        //t
+        assertThat(entity.getCreatedDate()).isEqualTo(created);
+        assertThat(entity.getUpdatedDate()).isEqualTo(updated);
+    }
+}
@@ -1,5 +1,8 @@
 package study.datajpa.entity;
 
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -11,6 +14,8 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @Commit
 @Transactional
 @SpringBootTest
@@ -72,4 +77,42 @@ class MemberTest {
         System.out.println("findMember.getCreatedBy() = " + findMember.getCreatedBy());
         System.out.println("findMember.getLastModifiedBy() = " + findMember.getLastModifiedBy());
     }
-}
\ No newline at end of file
+
+    @Test
+    void changeTeamWithoutLoadingMembers() {
+        //g
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 100; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        Member member = new Member("mover", 10, teamA);
+        em.persist(member);
+
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Member findMember = em.find(Member.class, member.getId());
+        Team findTeamB = em.find(Team.class, teamB.getId());
+        long statementsBefore = statistics.getPrepareStatementCount();
+        long entitiesBefore = statistics.getEntityLoadCount();
+        long collectionsBefore = statistics.getCollectionLoadCount();
+
+        //w
+        findMember.changeTeam(findTeamB);
+        new Member("newcomer", 20, em.getReference(Team.class, teamA.getId()));
+
+        //t
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(entitiesBefore);
+        assertThat(statistics.getCollectionLoadCount()).isEqualTo(collectionsBefore);
+        assertThat(Hibernate.isInitialized(findTeamB.getMembers())).isFalse();
+
+        em.flush();
+        em.clear();
+        assertThat(em.find(Member.class, member.getId()).getTeam().getId()).isEqualTo(teamB.getId());
+    }
+}
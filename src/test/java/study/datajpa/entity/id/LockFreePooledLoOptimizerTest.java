@@ -0,0 +1,59 @@
+package study.datajpa.entity.id;
+
+import org.hibernate.id.IdentifierGeneratorHelper;
+import org.hibernate.id.IntegralDataTypeHolder;
+import org.hibernate.id.enhanced.AccessCallback;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LockFreePooledLoOptimizerTest {
+
+    @Test
+    void concurrentAllocation() throws InterruptedException {
+        //g
+        int blockSize = 50;
+        AtomicLong sequence = new AtomicLong(1);
+        AtomicInteger sequenceCalls = new AtomicInteger();
+        AccessCallback callback = new AccessCallback() {
+            @Override
+            public IntegralDataTypeHolder getNextValue() {
+                sequenceCalls.incrementAndGet();
+                return IdentifierGeneratorHelper.getIntegralDataTypeHolder(Long.class)
+                        .initialize(sequence.getAndAdd(blockSize));
+            }
+
+            @Override
+            public String getTenantIdentifier() {
+                return null;
+            }
+        };
+        LockFreePooledLoOptimizer optimizer = new LockFreePooledLoOptimizer(Long.class, blockSize);
+        Set<Object> ids = ConcurrentHashMap.newKeySet();
+
+        //w
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    ids.add(optimizer.generate(callback));
+                }
+            });
+        }
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        //t
+        assertThat(ids).hasSize(8000);
+        assertThat(sequenceCalls.get()).isEqualTo(8000 / blockSize);
+        assertThat(ids).allMatch(id -> id instanceof Long && (Long) id >= 1 && (Long) id <= 8000);
+    }
+}
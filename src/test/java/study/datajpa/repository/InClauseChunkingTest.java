@@ -0,0 +1,215 @@
+package study.datajpa.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.sql.SqlStatementCounter;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"datajpa.in-clause.chunk-size=4", "datajpa.in-clause.parallelism=2"})
+class InClauseChunkingTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+    @Autowired
+    EntityManager em;
+    @Autowired
+    StatementThreads statementThreads;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.bulkDelete("m.username LIKE 'inClause%'", Map.of(), 100, p -> {});
+    }
+
+    @Test
+    void chunksRunConcurrentlyOutsideTransaction() {
+        //g
+        List<Member> members = memberRepository.saveAll(names(10).stream().map(Member::new).collect(Collectors.toList()));
+
+        //w
+        sqlStatementCounter.reset();
+        statementThreads.threads.clear();
+        List<Member> found = memberRepository.findByNames(names(12));
+
+        //t
+        assertThat(found).extracting(Member::getId)
+                .containsExactlyInAnyOrderElementsOf(members.stream().map(Member::getId).collect(Collectors.toList()));
+        assertThat(statementThreads.threads).hasSizeBetween(1, 2).allMatch(name -> name.startsWith("in-clause-chunk-"));
+        assertThat(sqlStatementCounter.snapshot().getExecutions()).isEqualTo(3);
+    }
+
+    @Test
+    void chunksShareTransactionAndPaddedPlans() {
+        //g
+        memberRepository.saveAll(names(10).stream().map(Member::new).collect(Collectors.toList()));
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            //w1
+            sqlStatementCounter.reset();
+            List<Member> found = memberRepository.findByNames(names(10));
+
+            //t1
+            assertThat(found).hasSize(10).allMatch(em::contains);
+            assertThat(sqlStatementCounter.snapshot().getExecutions()).isEqualTo(3);
+
+            //w2
+            sqlStatementCounter.reset();
+            memberRepository.findByNames(names(3));
+            memberRepository.findByNames(names(4));
+
+            //t2
+            assertThat(sqlStatementCounter.snapshot().getStatements()).hasSize(1);
+        });
+    }
+
+    @Test
+    void chunksShareOpenInViewEntityManager() {
+        //g
+        memberRepository.saveAll(names(10).stream().map(Member::new).collect(Collectors.toList()));
+        EntityManager openInView = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(openInView));
+        try {
+            //w
+            List<Member> found = memberRepository.findByNames(names(10));
+
+            //t
+            assertThat(found).hasSize(10).allMatch(openInView::contains);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            openInView.close();
+        }
+    }
+
+    @Test
+    void duplicateValuesMatchOnce() {
+        //g
+        memberRepository.saveAll(names(6).stream().map(Member::new).collect(Collectors.toList()));
+        List<String> names = new ArrayList<>(names(6));
+        names.addAll(names(6));
+
+        //w
+        List<Member> found = memberRepository.findByNames(names);
+
+        //t
+        assertThat(found).hasSize(6).doesNotHaveDuplicates();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"findTop3ByUsernameIn", "findDistinctByUsernameIn", "findByUsernameInOrderByAge",
+            "countByUsernameIn", "findSortedByNames", "findDistinctByNames", "findTeamsByNames", "findAgeSumsByNames",
+            "findByUsernameNotIn", "findByUsernameInOrAgeGreaterThan", "findOtherThanNames", "findByNamesOrAge"})
+    void notConcatenableShapesAreRejected(String name) {
+        Method method = Arrays.stream(Shapes.class.getMethods())
+                .filter(m -> m.getName().equals(name))
+                .findFirst().orElseThrow();
+
+        assertThatThrownBy(() -> InClauseChunkingPostProcessor.chunkedParameter(method, Member.class))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void concatenableShapesAreAccepted() throws NoSuchMethodException {
+        assertThat(InClauseChunkingPostProcessor.chunkedParameter(
+                Shapes.class.getMethod("findByUsernameIn", Collection.class), Member.class)).isZero();
+        assertThat(InClauseChunkingPostProcessor.chunkedParameter(
+                Shapes.class.getMethod("findByNames", int.class, Set.class), Member.class)).isEqualTo(1);
+    }
+
+    interface Shapes {
+
+        List<Member> findByUsernameIn(Collection<String> names);
+
+        @Query("SELECT m FROM Member m WHERE m.age > :age AND m.username IN :names")
+        List<Member> findByNames(@Param("age") int age, @Param("names") Set<String> names);
+
+        List<Member> findTop3ByUsernameIn(Collection<String> names);
+
+        List<Member> findDistinctByUsernameIn(Collection<String> names);
+
+        List<Member> findByUsernameInOrderByAge(Collection<String> names);
+
+        long countByUsernameIn(Collection<String> names);
+
+        @Query("SELECT m FROM Member m WHERE m.username IN :names ORDER\n  BY m.id")
+        List<Member> findSortedByNames(@Param("names") Collection<String> names);
+
+        @Query("SELECT DISTINCT m.team FROM Member m WHERE m.username IN :names")
+        List<Team> findDistinctByNames(@Param("names") Collection<String> names);
+
+        @Query("SELECT m.team FROM Member m WHERE m.username IN :names GROUP  BY m.team")
+        List<Team> findTeamsByNames(@Param("names") Collection<String> names);
+
+        @Query("SELECT sum (m.age) FROM Member m WHERE m.username IN :names")
+        List<Long> findAgeSumsByNames(@Param("names") Collection<String> names);
+
+        List<Member> findByUsernameNotIn(Collection<String> names);
+
+        List<Member> findByUsernameInOrAgeGreaterThan(Collection<String> names, int age);
+
+        @Query("SELECT m FROM Member m WHERE m.username not  in :names")
+        List<Member> findOtherThanNames(@Param("names") Collection<String> names);
+
+        @Query("SELECT m FROM Member m WHERE m.username IN :names OR m.age > 10")
+        List<Member> findByNamesOrAge(@Param("names") Collection<String> names);
+    }
+
+    @TestConfiguration
+    static class StatementThreadsConfig {
+
+        @Bean
+        StatementThreads statementThreads() {
+            return new StatementThreads();
+        }
+    }
+
+    static class StatementThreads extends SimpleJdbcEventListener {
+
+        final Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            threads.add(Thread.currentThread().getName());
+        }
+    }
+
+    private static List<String> names(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "inClause" + i).collect(Collectors.toList());
+    }
+}
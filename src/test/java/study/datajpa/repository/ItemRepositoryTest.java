@@ -5,6 +5,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import study.datajpa.entity.Item;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 class ItemRepositoryTest {
 
@@ -13,7 +15,13 @@ class ItemRepositoryTest {
 
     @Test
     void save() {
-        Item item = new Item("A");
-        itemRepository.save(item);
+        //g
+        Item first = itemRepository.save(new Item());
+        Item second = itemRepository.save(new Item());
+
+        //t
+        assertThat(first.getId()).isNotNull();
+        assertThat(second.getId()).isGreaterThan(first.getId());
+        assertThat(itemRepository.existsById(first.getId())).isTrue();
     }
-}
\ No newline at end of file
+}
@@ -1,23 +1,44 @@
 package study.datajpa.repository;
 
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.jpa.EntityManagerHolder;
 import org.springframework.test.annotation.Commit;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.sql.SqlBudgetChecker;
+import study.datajpa.sql.SqlStatementCounter;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @Transactional
 @Commit
@@ -28,6 +49,14 @@ class MemberRepositoryTest {
     MemberRepository memberRepository;
     @Autowired
     TeamRepository teamRepository;
+    @Autowired
+    SqlStatementCounter sqlStatementCounter;
+    @Autowired
+    SqlBudgetChecker sqlBudgetChecker;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
     @PersistenceContext
     EntityManager em;
 
@@ -368,6 +397,33 @@ class MemberRepositoryTest {
         }
     }
 
+    @Test
+    void prunedProjections() {
+        //g
+        Team teamA = new Team("teamA");
+        teamRepository.save(teamA);
+        memberRepository.save(new Member("pruned", 10, teamA));
+        memberRepository.save(new Member("pruned", 20));
+
+        em.flush();
+        em.clear();
+        sqlStatementCounter.reset();
+
+        //w
+        List<NestedClosedProjections> nested = memberRepository.findProjectionsByUsername("pruned", NestedClosedProjections.class);
+        List<UsernameOnlyDto> dtos = memberRepository.findProjectionsByUsername("pruned", UsernameOnlyDto.class);
+
+        //t
+        assertThat(nested).extracting(NestedClosedProjections::getUsername).containsExactly("pruned", "pruned");
+        assertThat(nested).extracting(p -> p.getTeam() == null ? null : p.getTeam().getName()).containsExactlyInAnyOrder("teamA", null);
+        assertThat(dtos).extracting(UsernameOnlyDto::getUsername).containsExactly("pruned", "pruned");
+        assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+
+        SqlStatementCounter.Counts counts = sqlStatementCounter.snapshot();
+        assertThat(counts.getExecutions()).isEqualTo(2);
+        assertThat(counts.getStatements().keySet()).noneMatch(sql -> sql.contains("age") || sql.contains("created_date"));
+    }
+
     @Test
     void nativeQuery() {
         //g
@@ -413,4 +469,477 @@ class MemberRepositoryTest {
             System.out.println("memberProjection.getTeamName() = " + memberProjection.getTeamName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void keysetPaging() {
+        //g
+        for (int i = 0; i < 7; i++) {
+            memberRepository.save(new Member("keyset" + i, i % 3));
+        }
+
+        em.flush();
+        em.clear();
+
+        //w
+        List<Member> visited = new ArrayList<>();
+        MemberCursor cursor = MemberCursor.first(MemberCursor.Key.AGE, Sort.Direction.DESC);
+        KeysetSlice<Member> slice;
+        do {
+            slice = memberRepository.findMemberKeyset(cursor, 3);
+            visited.addAll(slice.getContent());
+            if (slice.isHasNext()) cursor = MemberCursor.decode(slice.getNextCursor());
+        } while (slice.isHasNext());
+
+        //t
+        List<Member> expected = memberRepository.findAll(Sort.by(Sort.Direction.DESC, "age", "id"));
+        assertThat(visited).extracting(Member::getId)
+                .containsExactlyElementsOf(expected.stream().map(Member::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void keysetPagingAcrossNullUsernames() {
+        //g
+        for (int i = 0; i < 3; i++) {
+            memberRepository.save(new Member(null, i));
+            memberRepository.save(new Member("keysetNull" + i, i));
+        }
+
+        em.flush();
+        em.clear();
+
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            //w
+            List<Member> visited = new ArrayList<>();
+            MemberCursor cursor = MemberCursor.first(MemberCursor.Key.USERNAME, direction);
+            KeysetSlice<Member> slice;
+            do {
+                slice = memberRepository.findMemberKeyset(cursor, 2);
+                visited.addAll(slice.getContent());
+                if (slice.isHasNext()) cursor = MemberCursor.decode(slice.getNextCursor());
+            } while (slice.isHasNext());
+
+            //t
+            Comparator<Member> order = Comparator.comparing(Member::getUsername, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                    .thenComparing(Member::getId);
+            List<Long> expected = memberRepository.findAll().stream()
+                    .sorted(direction.isAscending() ? order : order.reversed())
+                    .map(Member::getId)
+                    .collect(Collectors.toList());
+            assertThat(visited).extracting(Member::getId).containsExactlyElementsOf(expected);
+        }
+    }
+
+    @Test
+    void cachedTotalCount() {
+        //g
+        memberRepository.save(new Member("count1", 77));
+        memberRepository.save(new Member("count2", 77));
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        long before = memberRepository.findByAge(77, pageRequest).getTotalElements();
+
+        //w
+        memberRepository.save(new Member("count3", 77));
+        long afterSave = memberRepository.findByAge(77, pageRequest).getTotalElements();
+        memberRepository.bulkAgePlus(77);
+        long afterBulk = memberRepository.findByAge(77, pageRequest).getTotalElements();
+
+        //t
+        assertThat(afterSave).isEqualTo(before + 1);
+        assertThat(afterBulk).isEqualTo(0);
+    }
+
+    @Test
+    void streamAllWithTeam() {
+        //g
+        Team team = new Team("streamTeam");
+        teamRepository.save(team);
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("stream" + i, i, team));
+        }
+
+        em.flush();
+        em.clear();
+
+        //w
+        long streamed;
+        int managed;
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(3)) {
+            streamed = members.filter(m -> m.getTeam() != null).count();
+            managed = em.unwrap(Session.class).getStatistics().getEntityCount();
+        }
+
+        //t
+        assertThat(streamed).isGreaterThanOrEqualTo(10);
+        assertThat(managed).isLessThanOrEqualTo(6);
+    }
+
+    @Test
+    void streamAllWithTeamKeepsCallersEntities() {
+        //g
+        Team team = new Team("streamKeptTeam");
+        teamRepository.save(team);
+        Member member = memberRepository.save(new Member("streamKept", 10, team));
+        for (int i = 0; i < 10; i++) {
+            memberRepository.save(new Member("streamKept" + i, i));
+        }
+        em.flush();
+
+        //w
+        try (Stream<Member> members = memberRepository.streamAllWithTeam(3)) {
+            members.forEach(m -> team.setName("streamKeptRenamed"));
+        }
+        member.setAge(20);
+        em.flush();
+        em.clear();
+
+        //t
+        assertThat(teamRepository.findById(team.getId()).get().getName()).isEqualTo("streamKeptRenamed");
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(20);
+    }
+
+    @Test
+    void bulkInsert() {
+        //g
+        List<Member> members = IntStream.range(0, 1000)
+                .mapToObj(i -> new Member("bulk" + i, i))
+                .collect(Collectors.toList());
+        em.flush();
+        sqlStatementCounter.reset();
+
+        //w
+        int inserted = memberRepository.bulkInsert(members);
+        SqlStatementCounter.Counts counts = sqlStatementCounter.snapshot();
+
+        //t
+        assertThat(inserted).isEqualTo(1000);
+        assertThat(counts.getBatchedStatements()).isEqualTo(1000);
+        assertThat(counts.getBatches()).isEqualTo(20);
+        assertThat(counts.getExecutions()).isLessThanOrEqualTo(20 + 21);
+    }
+
+    @Test
+    void bulkInsertKeepsCallersEntities() {
+        //g
+        Team team = teamRepository.save(new Team("bulkKeptTeam"));
+        List<Member> members = IntStream.range(0, 120)
+                .mapToObj(i -> new Member("bulkKept" + i, i, team))
+                .collect(Collectors.toList());
+
+        //w
+        memberRepository.bulkInsert(members);
+        boolean memberManaged = em.contains(members.get(0));
+        boolean teamManaged = em.contains(team);
+        team.setName("bulkKeptRenamed");
+        em.flush();
+        em.clear();
+
+        //t
+        assertThat(memberManaged).isFalse();
+        assertThat(teamManaged).isTrue();
+        assertThat(teamRepository.findById(team.getId()).get().getName()).isEqualTo("bulkKeptRenamed");
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void teamSecondLevelCache() {
+        //g
+        Team team = teamRepository.save(new Team("cachedTeam"));
+        teamRepository.findById(team.getId());
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getCacheRegionStatistics("team").getHitCount();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        //w
+        Team findTeam = teamRepository.findById(team.getId()).get();
+
+        //t
+        assertThat(findTeam.getName()).isEqualTo("cachedTeam");
+        assertThat(statistics.getCacheRegionStatistics("team").getHitCount()).isEqualTo(hitsBefore + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void usernameQueryCache() {
+        //g
+        memberRepository.save(new Member("queryCached", 10));
+        memberRepository.findListByUsername("queryCached");
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        long hitsBefore = statistics.getQueryCacheHitCount();
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        //w1
+        List<Member> cached = memberRepository.findListByUsername("queryCached");
+
+        //t1
+        assertThat(cached).hasSize(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(hitsBefore + 1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statementsBefore);
+
+        //w2
+        memberRepository.save(new Member("queryCached", 20));
+        memberRepository.bulkAgePlus(10);
+
+        //t2
+        assertThat(memberRepository.findListByUsername("queryCached"))
+                .extracting(Member::getAge)
+                .containsExactlyInAnyOrder(11, 21);
+    }
+
+    @Test
+    void batchFetchTeams() {
+        //g
+        for (int i = 0; i < 100; i++) {
+            Team team = new Team("batchTeam" + i);
+            teamRepository.save(team);
+            memberRepository.save(new Member("batchMember" + i, 4242, team));
+        }
+
+        em.flush();
+        em.clear();
+
+        Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        Page<Member> page = memberRepository.findByAge(4242, PageRequest.of(0, 100));
+        long statementsBefore = statistics.getPrepareStatementCount();
+
+        //w
+        List<String> teamNames = page.getContent().stream()
+                .map(m -> m.getTeam().getName())
+                .collect(Collectors.toList());
+        List<Integer> memberCounts = page.getContent().stream()
+                .map(m -> m.getTeam().getMembers().size())
+                .collect(Collectors.toList());
+
+        //t
+        assertThat(teamNames).hasSize(100).doesNotHaveDuplicates();
+        assertThat(memberCounts).containsOnly(1);
+        assertThat(statistics.getPrepareStatementCount() - statementsBefore).isLessThanOrEqualTo(1 + 2);
+    }
+
+    @Test
+    void statementBudget() {
+        //g
+        Team team = new Team("budgetTeam");
+        teamRepository.save(team);
+        for (int i = 0; i < 5; i++) {
+            memberRepository.save(new Member("budget" + i, 30, team));
+        }
+
+        em.flush();
+        em.clear();
+
+        //w1
+        sqlStatementCounter.reset();
+        memberRepository.findMemberFetchJoin();
+
+        //t1
+        assertThat(sqlStatementCounter.snapshot().getExecutions()).isLessThanOrEqualTo(2);
+
+        //w2
+        sqlStatementCounter.reset();
+        for (int i = 0; i < 5; i++) {
+            memberRepository.findUser("budget" + i, 30);
+        }
+        SqlStatementCounter.Counts counts = sqlStatementCounter.snapshot();
+
+        //t2
+        assertThat(counts.getRepeatedStatements(5)).hasSize(1);
+        assertThat(sqlBudgetChecker.check("statementBudget", counts)).isFalse();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void chunkedBulkMutation() {
+        //g
+        memberRepository.bulkInsert(IntStream.range(0, 25)
+                .mapToObj(i -> new Member("chunked", 10))
+                .collect(Collectors.toList()));
+        Map<String, Object> params = Map.of("username", "chunked");
+        List<BulkProgress> progress = new ArrayList<>();
+
+        //w1
+        BulkProgress updated = memberRepository.bulkUpdate("m.age = m.age + 1", "m.username = :username", params, 10, progress::add);
+
+        //t1
+        assertThat(updated.getAffected()).isEqualTo(25);
+        assertThat(updated.getChunks()).isEqualTo(3);
+        assertThat(progress).extracting(BulkProgress::getAffected).containsExactly(10L, 20L, 25L);
+        assertThat(memberRepository.findByUsername("chunked")).extracting(Member::getAge).containsOnly(11);
+
+        //w2
+        BulkProgress deleted = memberRepository.bulkDelete("m.username = :username", params, 10, p -> {});
+
+        //t2
+        assertThat(deleted.getAffected()).isEqualTo(25);
+        assertThat(memberRepository.findByUsername("chunked")).isEmpty();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void chunkedBulkMutationDetachesOnlyTouchedMembers() {
+        //g
+        Member touched = memberRepository.save(new Member("chunkedTouched", 10));
+        Member untouched = memberRepository.save(new Member("chunkedUntouched", 10));
+        EntityManager openInView = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(openInView));
+        try {
+            Member managedTouched = em.find(Member.class, touched.getId());
+            Member managedUntouched = em.find(Member.class, untouched.getId());
+
+            //w
+            memberRepository.bulkUpdate("m.age = 30", "m.username = :username", Map.of("username", "chunkedTouched"), 100, p -> {});
+
+            //t
+            assertThat(openInView.contains(managedTouched)).isFalse();
+            assertThat(openInView.contains(managedUntouched)).isTrue();
+            assertThat(em.find(Member.class, touched.getId()).getAge()).isEqualTo(30);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            openInView.close();
+        }
+        memberRepository.bulkDelete("m.username LIKE 'chunked%'", Map.of(), 100, p -> {});
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void chunkedBulkMutationRejectsCallerTransaction() {
+        //g
+        Member member = memberRepository.save(new Member("chunkedPending", 10));
+
+        //w
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.find(Member.class, member.getId()).setAge(20);
+
+            //t
+            assertThatThrownBy(() -> memberRepository.bulkUpdate("m.age = 30", "m.username = 'chunkedPending'", Map.of(), 100, p -> {}))
+                    .hasRootCauseInstanceOf(IllegalStateException.class);
+        });
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(20);
+        assertThatThrownBy(() -> memberRepository.bulkDelete("m.id > :chunkLowerId", Map.of("chunkLowerId", 0L), 100, p -> {}))
+                .hasRootCauseInstanceOf(IllegalArgumentException.class);
+        memberRepository.bulkDelete("m.username LIKE 'chunked%'", Map.of(), 100, p -> {});
+    }
+
+    @Test
+    void readOnlyEntities() {
+        //g
+        Team team = new Team("readOnlyTeam");
+        teamRepository.save(team);
+        Member member = memberRepository.save(new Member("readOnly", 10, team));
+        Member other = memberRepository.save(new Member("readWrite", 10, team));
+        em.flush();
+        em.clear();
+        Session session = em.unwrap(Session.class);
+
+        //w
+        List<Member> loaded = memberRepository.findByNamesReadOnly(List.of("readOnly"));
+        loaded.get(0).setAge(20);
+        Member found = memberRepository.findById(member.getId()).get();
+
+        //t
+        assertThat(session.isDefaultReadOnly()).isFalse();
+        assertThat(found).isSameAs(loaded.get(0));
+        assertThat(session.isReadOnly(found)).isTrue();
+        assertThat(ageInDatabase(member.getId())).isEqualTo(10);
+
+        //w
+        Member writable = memberRepository.findByNames(List.of("readWrite")).get(0);
+        writable.setAge(30);
+
+        //t
+        assertThat(session.isReadOnly(writable)).isFalse();
+        assertThat(ageInDatabase(other.getId())).isEqualTo(30);
+    }
+
+    private Integer ageInDatabase(Long id) {
+        return em.createQuery("SELECT m.age FROM Member m WHERE m.id = :id", Integer.class)
+                .setParameter("id", id)
+                .getSingleResult();
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void restartableChunkedScan() {
+        //g
+        List<Member> members = memberRepository.saveAll(IntStream.range(0, 25)
+                .mapToObj(i -> new Member("scanned", i))
+                .collect(Collectors.toList()));
+        List<Long> seen = new ArrayList<>();
+        List<ScanCheckpoint> checkpoints = new ArrayList<>();
+        List<Integer> managed = new ArrayList<>();
+        ScanCheckpoint from = ScanCheckpoint.after(members.get(0).getId() - 1);
+        assertThatThrownBy(() -> memberRepository.scanInChunks(from, 10, 1, chunk -> {
+            if (checkpoints.size() == 1) throw new IllegalStateException("stop");
+            managed.add(em.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities());
+            chunk.stream().filter(m -> m.getUsername().equals("scanned")).forEach(m -> seen.add(m.getId()));
+        }, checkpoints::add)).hasRootCauseMessage("stop");
+
+        //w
+        ScanCheckpoint last = memberRepository.scanInChunks(checkpoints.get(0), 10, 1,
+                chunk -> chunk.stream().filter(m -> m.getUsername().equals("scanned")).forEach(m -> seen.add(m.getId())),
+                checkpoints::add);
+
+        //t
+        assertThat(seen).containsExactlyElementsOf(members.stream().map(Member::getId).collect(Collectors.toList()));
+        assertThat(managed).containsExactly(10);
+        assertThat(checkpoints.get(0).getLastId()).isEqualTo(members.get(9).getId());
+        assertThat(last.getLastId()).isGreaterThanOrEqualTo(members.get(24).getId());
+        memberRepository.bulkDelete("m.username = 'scanned'", Map.of(), 100, p -> {});
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void chunkedScanWithOpenInViewEntityManager() {
+        //g
+        Member held = memberRepository.save(new Member("scannedHeld", 1));
+        List<Member> members = memberRepository.saveAll(IntStream.range(0, 25)
+                .mapToObj(i -> new Member("scannedInView", i))
+                .collect(Collectors.toList()));
+        EntityManager openInView = entityManagerFactory.createEntityManager();
+        TransactionSynchronizationManager.bindResource(entityManagerFactory, new EntityManagerHolder(openInView));
+        List<Integer> managed = new ArrayList<>();
+        try {
+            Member heldManaged = em.find(Member.class, held.getId());
+
+            //w
+            memberRepository.scanInChunks(ScanCheckpoint.after(members.get(0).getId() - 1), 10, 1,
+                    chunk -> managed.add(openInView.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()),
+                    checkpoint -> {});
+
+            //t
+            assertThat(managed).hasSize(3).allMatch(count -> count <= 11);
+            assertThat(openInView.unwrap(SessionImplementor.class).getPersistenceContext().getNumberOfManagedEntities()).isEqualTo(1);
+            assertThat(openInView.contains(heldManaged)).isTrue();
+        } finally {
+            TransactionSynchronizationManager.unbindResource(entityManagerFactory);
+            openInView.close();
+        }
+        memberRepository.bulkDelete("m.username LIKE 'scanned%'", Map.of(), 100, p -> {});
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void parallelChunkedScan() {
+        //g
+        List<Member> members = memberRepository.saveAll(IntStream.range(0, 95)
+                .mapToObj(i -> new Member("scannedParallel", i))
+                .collect(Collectors.toList()));
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        List<Long> checkpointIds = new ArrayList<>();
+
+        //w
+        ScanCheckpoint from = ScanCheckpoint.after(members.get(0).getId() - 1);
+        ScanCheckpoint last = memberRepository.scanInChunks(from, 10, 4, chunk -> chunk.stream()
+                        .filter(m -> m.getUsername().equals("scannedParallel"))
+                        .forEach(m -> seen.add(m.getId())),
+                checkpoint -> checkpointIds.add(checkpoint.getLastId()));
+
+        //t
+        assertThat(seen).containsExactlyInAnyOrderElementsOf(members.stream().map(Member::getId).collect(Collectors.toList()));
+        assertThat(checkpointIds).isSorted().doesNotHaveDuplicates().hasSize(last.getChunks());
+        assertThat(last.getScanned()).isGreaterThanOrEqualTo(95);
+        memberRepository.bulkDelete("m.username = 'scannedParallel'", Map.of(), 100, p -> {});
+    }
+}
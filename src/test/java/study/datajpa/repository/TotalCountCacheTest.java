@@ -0,0 +1,52 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TotalCountCacheTest {
+
+    @Test
+    void countOverlappingInvalidationIsNotCached() {
+        //g
+        TotalCountCache cache = new TotalCountCache(null, CountStrategy.CACHED, Duration.ofMinutes(1), 10);
+
+        //w
+        long stale = cache.count("member", "q", List.of(), () -> {
+            cache.invalidate("member");
+            return 5;
+        });
+        long fresh = cache.count("member", "q", List.of(), () -> 6);
+
+        //t
+        assertThat(stale).isEqualTo(5);
+        assertThat(fresh).isEqualTo(6);
+    }
+
+    @Test
+    void fullCacheEvictsOldestEntry() {
+        //g
+        TotalCountCache cache = new TotalCountCache(null, CountStrategy.CACHED, Duration.ofMinutes(1), 2);
+        AtomicInteger counted = new AtomicInteger();
+        cache.count("member", "a", List.of(), () -> counted.incrementAndGet());
+        cache.count("member", "b", List.of(), () -> counted.incrementAndGet());
+
+        //w
+        cache.count("member", "c", List.of(), () -> counted.incrementAndGet());
+        cache.count("member", "c", List.of(), () -> counted.incrementAndGet());
+        cache.count("member", "b", List.of(), () -> counted.incrementAndGet());
+
+        //t
+        assertThat(counted).hasValue(3);
+
+        //w
+        cache.count("member", "a", List.of(), () -> counted.incrementAndGet());
+
+        //t
+        assertThat(counted).hasValue(4);
+    }
+}
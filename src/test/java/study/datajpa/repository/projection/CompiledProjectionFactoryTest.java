@@ -0,0 +1,96 @@
+package study.datajpa.repository.projection;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.data.projection.TargetAware;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+
+import java.lang.reflect.Proxy;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompiledProjectionFactoryTest {
+
+    private final CompiledProjectionFactory factory = new CompiledProjectionFactory();
+    private final SpelAwareProxyProjectionFactory reference = new SpelAwareProxyProjectionFactory();
+
+    @Test
+    void openProjection() {
+        //g
+        Member member = new Member("member1", 10);
+
+        //w
+        UsernameOnly first = factory.createProjection(UsernameOnly.class, member);
+        UsernameOnly second = factory.createProjection(UsernameOnly.class, new Member("member2", 20));
+
+        //t
+        assertThat(first.getUsername())
+                .isEqualTo(reference.createProjection(UsernameOnly.class, member).getUsername())
+                .isEqualTo("member1 10");
+        assertThat(second.getUsername()).isEqualTo("member2 20");
+        assertThat(((TargetAware) first).getTarget()).isSameAs(member);
+    }
+
+    @Test
+    void openProjectionWithArguments() {
+        //g
+        Member member = new Member("member1", 10);
+
+        //w
+        Tagged compiled = factory.createProjection(Tagged.class, member);
+        Tagged proxied = reference.createProjection(Tagged.class, member);
+
+        //t
+        assertThat(compiled.tagged("x")).isEqualTo(proxied.tagged("x")).isEqualTo("member1-x");
+        assertThat(compiled.getUsername()).isEqualTo("member1");
+        assertThat(Proxy.getInvocationHandler(compiled).getClass().getEnclosingClass()).isEqualTo(CompiledProjectionFactory.class);
+    }
+
+    public interface Tagged {
+
+        String getUsername();
+
+        @Value("#{target.username + '-' + args[0]}")
+        String tagged(String tag);
+    }
+
+    @Test
+    void nestedClosedProjection() {
+        //g
+        Team team = new Team("teamA");
+        Member member = new Member("member1", 10, team);
+
+        //w
+        NestedClosedProjections projection = factory.createProjection(NestedClosedProjections.class, member);
+
+        //t
+        assertThat(projection.getUsername()).isEqualTo("member1");
+        assertThat(projection.getTeam().getName()).isEqualTo("teamA");
+        assertThat(factory.createProjection(NestedClosedProjections.class, new Member("member2", 20)).getTeam()).isNull();
+    }
+
+    @Test
+    void mapBackedProjection() {
+        //g
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", BigInteger.valueOf(7));
+        row.put("username", "member1");
+        row.put("teamName", "teamA");
+
+        //w
+        MemberProjection projection = factory.createProjection(MemberProjection.class, row);
+
+        //t
+        assertThat(projection.getId()).isEqualTo(7L);
+        assertThat(projection.getUsername()).isEqualTo("member1");
+        assertThat(projection.getTeamName()).isEqualTo("teamA");
+    }
+}
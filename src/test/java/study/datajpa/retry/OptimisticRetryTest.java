@@ -0,0 +1,80 @@
+package study.datajpa.retry;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+class OptimisticRetryTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentIncrements() throws InterruptedException {
+        //g
+        Member member = memberRepository.save(new Member("retried", 0));
+        OptimisticRetry retry = new OptimisticRetry(transactionManager, 100, Duration.ofMillis(1), Duration.ofMillis(20));
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //w
+        for (int i = 0; i < 40; i++) {
+            executor.execute(() -> retry.run(() -> {
+                Member found = memberRepository.findById(member.getId()).get();
+                found.setAge(found.getAge() + 1);
+            }));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        //t
+        Member result = memberRepository.findById(member.getId()).get();
+        assertThat(result.getAge()).isEqualTo(40);
+        assertThat(result.getVersion()).isEqualTo(member.getVersion() + 40);
+        memberRepository.delete(result);
+    }
+
+    @Test
+    void boundedAttempts() {
+        //g
+        OptimisticRetry retry = new OptimisticRetry(transactionManager, 3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        //w
+        String recovered = retry.execute(() -> {
+            if (attempts.incrementAndGet() < 3) throw new ObjectOptimisticLockingFailureException(Member.class, 1L);
+            return "ok";
+        });
+
+        //t
+        assertThat(recovered).isEqualTo("ok");
+        attempts.set(0);
+        assertThatThrownBy(() -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new ObjectOptimisticLockingFailureException(Member.class, 1L);
+        })).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        assertThat(attempts).hasValue(3);
+
+        attempts.set(0);
+        assertThatThrownBy(() -> retry.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        })).isInstanceOf(IllegalStateException.class);
+        assertThat(attempts).hasValue(1);
+    }
+}
@@ -0,0 +1,20 @@
+package study.datajpa.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SqlFingerprintTest {
+
+    @Test
+    void stripsLiterals() {
+        //w
+        String a = SqlFingerprint.of("SELECT * FROM member m0_ WHERE m0_.username = 'kim' AND m0_.age > 10");
+        String b = SqlFingerprint.of("select *\n  from member m0_\n where m0_.username = 'O''Brien' and m0_.age > 20");
+        String in = SqlFingerprint.of("select * from member where username in (?, ?, ?)");
+
+        //t
+        assertThat(a).isEqualTo(b).isEqualTo("select * from member m0_ where m0_.username = ? and m0_.age > ?");
+        assertThat(in).isEqualTo("select * from member where username in (?+)");
+    }
+}
@@ -0,0 +1,92 @@
+package study.datajpa.work;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class ClaimingWorkersTest {
+
+    @Autowired
+    MemberRepository memberRepository;
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        memberRepository.bulkDelete("m.username = :username", Map.of("username", "claimed"), 1000, p -> {});
+    }
+
+    @Test
+    void claimSkipsLockedRows() {
+        //g
+        insert(10);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        //w
+        List<Long> others = transaction.execute(status -> {
+            List<Long> mine = ids(memberRepository.claimUnlocked(5, "username = ? AND age = 0", "claimed"));
+            List<Long> theirs = CompletableFuture
+                    .supplyAsync(() -> transaction.execute(s -> ids(memberRepository.claimUnlocked(5, "username = ? AND age = 0", "claimed"))))
+                    .orTimeout(5, TimeUnit.SECONDS)
+                    .join();
+
+            //t
+            assertThat(mine).hasSize(5);
+            assertThat(theirs).hasSize(5).doesNotContainAnyElementsOf(mine);
+            return theirs;
+        });
+        assertThat(others).hasSize(5);
+    }
+
+    @Test
+    void drainProcessesEveryRowOnce() throws InterruptedException {
+        //g
+        insert(200);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        ClaimingWorkers<Member> workers = new ClaimingWorkers<>(transactionManager, 4, 10, Duration.ofMillis(10),
+                limit -> memberRepository.claimUnlocked(limit, "username = ? AND age = 0", "claimed"),
+                batch -> batch.forEach(m -> {
+                    assertThat(seen.add(m.getId())).isTrue();
+                    m.setAge(1);
+                }));
+
+        //w
+        long processed;
+        try (workers) {
+            processed = workers.drain();
+        }
+
+        //t
+        assertThat(processed).isEqualTo(200);
+        assertThat(seen).hasSize(200);
+        assertThat(memberRepository.findByUsername("claimed")).extracting(Member::getAge).containsOnly(1);
+    }
+
+    private void insert(int count) {
+        memberRepository.bulkInsert(IntStream.range(0, count)
+                .mapToObj(i -> new Member("claimed", 0))
+                .collect(Collectors.toList()));
+    }
+
+    private static List<Long> ids(List<Member> members) {
+        return members.stream().map(Member::getId).collect(Collectors.toList());
+    }
+}